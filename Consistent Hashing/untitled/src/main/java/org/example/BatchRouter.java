@@ -0,0 +1,141 @@
+package org.example;
+
+import org.example.hash.HashFunction;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resolves a whole batch of keys against one snapshot. Each chunk is hashed, bucket-sorted by hash, and then
+ * matched against the ring in a single merge pass, so the ring is walked once per chunk instead of binary searched
+ * per key. Batches above {@link #SPLIT_THRESHOLD} are split into chunks that run on a fork-join pool.
+ */
+final class BatchRouter {
+    static final int SPLIT_THRESHOLD = 8192;
+
+    private BatchRouter() {
+    }
+
+    /**
+     * Returns, for every input position, the index into {@code ring.nodes} of its owner. When {@code keys} is
+     * non-null the hashes are computed into {@code hashes} first, as part of the same parallel pass.
+     */
+    static int[] owners(RingSnapshot ring, List<String> keys, HashFunction hashFunction, long[] hashes,
+                        ForkJoinPool pool) {
+        int[] owners = new int[hashes.length];
+        ResolveTask task = new ResolveTask(ring, keys, hashFunction, hashes, owners, 0, hashes.length);
+        if (hashes.length <= SPLIT_THRESHOLD) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return owners;
+    }
+
+    // Serializable only through RecursiveAction; tasks never leave the pool
+    @SuppressWarnings("serial")
+    private static final class ResolveTask extends RecursiveAction {
+        private final RingSnapshot ring;
+        private final List<String> keys;
+        private final HashFunction hashFunction;
+        private final long[] hashes;
+        private final int[] owners;
+        private final int from;
+        private final int to;
+
+        ResolveTask(RingSnapshot ring, List<String> keys, HashFunction hashFunction, long[] hashes, int[] owners,
+                    int from, int to) {
+            this.ring = ring;
+            this.keys = keys;
+            this.hashFunction = hashFunction;
+            this.hashes = hashes;
+            this.owners = owners;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ResolveTask(ring, keys, hashFunction, hashes, owners, from, mid),
+                        new ResolveTask(ring, keys, hashFunction, hashes, owners, mid, to));
+                return;
+            }
+            if (keys != null) {
+                for (int i = from; i < to; i++) {
+                    hashes[i] = hashFunction.hash(keys.get(i));
+                }
+            }
+            resolve();
+        }
+
+        /**
+         * Counting sort on the top bits of each hash (order preserving once the sign bit is flipped), then one
+         * ascending walk over the ring. Inside a bucket the hashes are unsorted, but a bucket spans so little of
+         * the ring that the owner is found within the handful of positions that fall inside it.
+         */
+        private void resolve() {
+            int n = to - from;
+            if (n == 0) return;
+            int bits = Math.max(4, Math.min(16, 32 - Integer.numberOfLeadingZeros(n)));
+            int shift = 64 - bits;
+            int[] starts = new int[(1 << bits) + 1];
+            for (int i = from; i < to; i++) {
+                starts[bucket(hashes[i], shift) + 1]++;
+            }
+            for (int b = 0; b < 1 << bits; b++) {
+                starts[b + 1] += starts[b];
+            }
+            int[] positions = new int[n];
+            int[] filled = new int[1 << bits];
+            for (int i = from; i < to; i++) {
+                int b = bucket(hashes[i], shift);
+                positions[starts[b] + filled[b]++] = i;
+            }
+
+            long[] ringHashes = ring.hashes;
+            int p = 0;
+            int end = 0;
+            for (int b = 0; b < 1 << bits; b++) {
+                if (starts[b] == starts[b + 1]) continue;
+                long lowest = ((long) b << shift) ^ Long.MIN_VALUE;
+                while (p < ringHashes.length && ringHashes[p] < lowest) p++;
+                // [p, end) are the ring positions inside this bucket; the owner is one of them or the one at end
+                end = Math.max(end, p);
+                long highest = lowest + (1L << shift) - 1;
+                while (end < ringHashes.length && ringHashes[end] <= highest) end++;
+                for (int j = starts[b]; j < starts[b + 1]; j++) {
+                    int position = positions[j];
+                    int q = end - p > 8
+                            ? ceiling(ringHashes, p, end, hashes[position])
+                            : scan(ringHashes, p, hashes[position]);
+                    owners[position] = ring.nodeIndexes[q == ringHashes.length ? 0 : q];
+                }
+            }
+        }
+
+        private static int scan(long[] ringHashes, int q, long hash) {
+            while (q < ringHashes.length && ringHashes[q] < hash) q++;
+            return q;
+        }
+
+        private static int ceiling(long[] ringHashes, int low, int high, long hash) {
+            high--;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (ringHashes[mid] < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private static int bucket(long hash, int shift) {
+            return (int) ((hash ^ Long.MIN_VALUE) >>> shift);
+        }
+    }
+}
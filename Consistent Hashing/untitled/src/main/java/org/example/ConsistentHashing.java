@@ -1,101 +1,444 @@
 package org.example;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import org.example.hash.HashFunction;
+import org.example.router.KeyRouter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
-public class ConsistentHashing {
+public class ConsistentHashing implements KeyRouter {
     private static final Logger logger = Logger.getLogger(ConsistentHashing.class.getName());
     private final TreeMap<Long, String> ring = new TreeMap<>();
     private final int virtualNodes;
-    private final MessageDigest md5;
-    private final MessageDigest sha256;
-    private final Map<String, Set<String>> nodeToKeysMap = new TreeMap<>();
+    private final HashFunction hashFunction;
+    // 0 means unbounded; otherwise no node takes more than capacityFactor times the average load
+    private final double capacityFactor;
+    // Key ownership is tracked by ring hash only; see KeyHashIndex
+    private final Map<String, KeyHashIndex> nodeToKeyHashes = new TreeMap<>();
+    private final Map<String, Double> weights = new HashMap<>();
+    // Bounded loads only: ring hash to node for keys placed past their ring owner. Written under the monitor and
+    // read lock-free by lookups, so getNode and routeAll send a key where addKey actually put it
+    private final Map<Long, String> overflow = new ConcurrentHashMap<>();
+    // Readers only ever see a fully built snapshot; the TreeMap above is touched by writers under the monitor
+    private volatile RingSnapshot snapshot = RingSnapshot.EMPTY;
+    // Assigned key count and share of total weight per snapshot node index, only used by writers under the monitor
+    private int[] loads = new int[0];
+    private double[] capacityShares = new double[0];
+    private long assignedKeys;
+    private volatile MigrationPlan lastMigrationPlan = MigrationPlan.EMPTY;
+    private final RingMetrics metrics = new RingMetrics();
 
     public ConsistentHashing(int virtualNodes) {
-        this.virtualNodes = virtualNodes;
-        try {
-            this.md5 = MessageDigest.getInstance("MD5");
-            this.sha256 = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            logger.severe("Hash Algorithm not found: " + e.getMessage());
-            throw new RuntimeException("Hash Algorithm not found", e);
-        }
+        this(virtualNodes, HashFunction.sha256());
     }
 
-    private long hashMD5(String key) {
-        md5.update(key.getBytes(StandardCharsets.UTF_8));
-        byte[] digest = md5.digest();
-        return ((long) (digest[3] & 0xFF) << 24) | ((long) (digest[2] & 0xFF) << 16) |
-                ((long) (digest[1] & 0xFF) << 8) | (digest[0] & 0xFF);
+    public ConsistentHashing(int virtualNodes, HashFunction hashFunction) {
+        this(virtualNodes, hashFunction, 0);
     }
 
-    private long hashSHA256(String key) {
-        sha256.update(key.getBytes(StandardCharsets.UTF_8));
-        byte[] digest = sha256.digest();
-        return ((long) (digest[3] & 0xFF) << 24) | ((long) (digest[2] & 0xFF) << 16) |
-                ((long) (digest[1] & 0xFF) << 8) | (digest[0] & 0xFF);
+    public ConsistentHashing(int virtualNodes, HashFunction hashFunction, double capacityFactor) {
+        if (capacityFactor != 0 && capacityFactor <= 1) {
+            throw new IllegalArgumentException("Capacity factor must be greater than 1: " + capacityFactor);
+        }
+        this.virtualNodes = virtualNodes;
+        this.hashFunction = hashFunction;
+        this.capacityFactor = capacityFactor;
     }
 
+    @Override
     public void addNode(String node) {
-        for (int i = 0; i < virtualNodes; i++) {
-            long hash = hashSHA256(node + "#" + i);
+        addNode(node, 1.0);
+    }
+
+    // A node of weight w gets round(w * virtualNodes) positions, so it owns a share of the ring proportional to w
+    public synchronized void addNode(String node, double weight) {
+        setWeight(node, weight);
+        publishSnapshot(Set.of());
+        logger.info("Node added: " + node + " (weight " + weight + ")");
+    }
+
+    @Override
+    public synchronized void removeNode(String node) {
+        Double weight = weights.remove(node);
+        if (weight == null) return;
+        removePositions(node, weight);
+        publishSnapshot(Set.of(node));
+        logger.info("Node removed: " + node);
+    }
+
+    /**
+     * Applies a batch of membership changes with a single snapshot rebuild and a single migration plan: every
+     * entry of {@code weights} adds or re-weights a node and every node in {@code removed} leaves the ring.
+     */
+    public synchronized void updateMembership(Map<String, Double> weights, Collection<String> removed) {
+        Set<String> leaving = new HashSet<>();
+        for (String node : removed) {
+            Double weight = this.weights.remove(node);
+            if (weight != null) {
+                removePositions(node, weight);
+                leaving.add(node);
+            }
+        }
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            if (!entry.getValue().equals(this.weights.get(entry.getKey()))) {
+                setWeight(entry.getKey(), entry.getValue());
+            }
+        }
+        publishSnapshot(leaving);
+        logger.info("Membership updated: weights " + weights + ", removed " + leaving);
+    }
+
+    // Current weight of the node, or null if it is not on the ring
+    public synchronized Double getWeight(String node) {
+        return weights.get(node);
+    }
+
+    private void setWeight(String node, double weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        Double previous = weights.put(node, weight);
+        if (previous != null) {
+            removePositions(node, previous);
+        }
+        for (int i = 0; i < vnodeCount(weight); i++) {
+            long hash = hashFunction.hash(node + "#" + i);
             ring.put(hash, node);
         }
-        logger.info("Node added: " + node);
     }
 
-    public void removeNode(String node) {
-        for (int i = 0; i < virtualNodes; i++) {
-            long hash = hashSHA256(node + "#" + i);
+    private void removePositions(String node, double weight) {
+        for (int i = 0; i < vnodeCount(weight); i++) {
+            long hash = hashFunction.hash(node + "#" + i);
             ring.remove(hash);
         }
-        rebalanceKeys(node);
-        logger.info("Node removed: " + node);
     }
 
-    private void rebalanceKeys(String removedNode) {
-        Set<String> keys = nodeToKeysMap.getOrDefault(removedNode, new HashSet<>());
-        nodeToKeysMap.remove(removedNode);
+    private int vnodeCount(double weight) {
+        return Math.max(1, (int) Math.round(virtualNodes * weight));
+    }
+
+    /**
+     * Membership changes rebuild the arrays off the lookup path and swap them in with a single volatile write.
+     * Key ownership then follows the ring delta: the migration plan lists the ranges that changed hands and only
+     * the key hashes inside those ranges are cut out of the old owner's index and appended to the new one.
+     */
+    private void publishSnapshot(Set<String> leavingNodes) {
+        long start = System.nanoTime();
+        RingSnapshot before = snapshot;
+        RingSnapshot next = RingSnapshot.of(ring);
+        List<RangeMove> ranges = MigrationPlan.between(before, next);
+        Map<String, KeyHashIndex> leaving = new HashMap<>();
+        for (String node : leavingNodes) {
+            KeyHashIndex keys = nodeToKeyHashes.remove(node);
+            if (keys != null) leaving.put(node, keys);
+        }
+        List<RangeMove> moves = moveRanges(ranges, leaving);
+
+        int[] nextLoads = new int[next.nodes.length];
+        double[] nextShares = new double[next.nodes.length];
+        double totalWeight = 0;
+        assignedKeys = 0;
+        for (int i = 0; i < next.nodes.length; i++) {
+            KeyHashIndex keys = nodeToKeyHashes.get(next.nodes[i]);
+            nextLoads[i] = keys == null ? 0 : keys.size();
+            assignedKeys += nextLoads[i];
+            nextShares[i] = weights.get(next.nodes[i]);
+            totalWeight += nextShares[i];
+        }
+        for (int i = 0; i < nextShares.length; i++) {
+            nextShares[i] /= totalWeight;
+        }
+        loads = nextLoads;
+        capacityShares = nextShares;
+        snapshot = next;
+
+        // Whatever the ranges did not carry off a leaving node (all of it under bounded loads) is placed per key
+        long reassigned = 0;
+        for (Map.Entry<String, KeyHashIndex> entry : leaving.entrySet()) {
+            long[] remaining = entry.getValue().toArray();
+            if (next.isEmpty()) {
+                logger.warning("Ring is empty, dropping " + remaining.length + " keys of " + entry.getKey());
+            } else {
+                for (long hash : remaining) {
+                    overflow.remove(hash);
+                    place(next, hash);
+                }
+                reassigned += remaining.length;
+            }
+        }
+        lastMigrationPlan = new MigrationPlan(moves, reassigned);
+        metrics.recordMembershipChange(System.nanoTime() - start, lastMigrationPlan.keysMoved());
+    }
+
+    private List<RangeMove> moveRanges(List<RangeMove> ranges, Map<String, KeyHashIndex> leaving) {
+        Map<String, List<Integer>> bySource = new HashMap<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            String from = ranges.get(i).from();
+            // Bounded loads re-place a leaving node's keys one by one, so its ranges are not moved wholesale
+            if (capacityFactor != 0 && leaving.containsKey(from)) continue;
+            bySource.computeIfAbsent(from, k -> new ArrayList<>()).add(i);
+        }
+
+        RangeMove[] moves = ranges.toArray(new RangeMove[0]);
+        for (Map.Entry<String, List<Integer>> entry : bySource.entrySet()) {
+            KeyHashIndex source = leaving.containsKey(entry.getKey())
+                    ? leaving.get(entry.getKey())
+                    : nodeToKeyHashes.get(entry.getKey());
+            if (source == null) continue;
+            List<RangeMove> sourceRanges = new ArrayList<>();
+            for (int index : entry.getValue()) {
+                sourceRanges.add(ranges.get(index));
+            }
+            long[][] extracted = source.extract(sourceRanges);
+            for (int i = 0; i < extracted.length; i++) {
+                RangeMove range = sourceRanges.get(i);
+                nodeToKeyHashes.computeIfAbsent(range.to(), k -> new KeyHashIndex()).addAll(extracted[i]);
+                // A range only carries hashes its source owned on the ring, so they are no longer overflowed
+                if (!overflow.isEmpty()) {
+                    for (long hash : extracted[i]) overflow.remove(hash);
+                }
+                moves[entry.getValue().get(i)] = range.withKeys(extracted[i].length);
+            }
+        }
+        return List.of(moves);
+    }
+
+    // Bounded loads: walk clockwise from the key's position and take the first node that is still under capacity,
+    // where a node's capacity is its weighted share of capacityFactor times the current key count
+    private int ownerIndex(RingSnapshot current, long hash) {
+        int position = current.positionFor(hash);
+        if (capacityFactor == 0) return current.nodeIndexes[position];
+
+        double budget = capacityFactor * (assignedKeys + 1);
+        for (int step = 0; step < current.hashes.length; step++) {
+            int nodeIndex = current.nodeIndexes[position];
+            if (loads[nodeIndex] < Math.ceil(budget * capacityShares[nodeIndex])) return nodeIndex;
+            if (++position == current.hashes.length) position = 0;
+        }
+        return current.nodeIndexes[position];
+    }
+
+    // Keys form a set: a hash that is already held somewhere stays where it is and is not counted again
+    private String place(RingSnapshot current, long hash) {
+        String holder = holderOf(current, hash);
+        if (holder != null) return holder;
+        int nodeIndex = ownerIndex(current, hash);
+        String node = current.nodes[nodeIndex];
+        nodeToKeyHashes.computeIfAbsent(node, k -> new KeyHashIndex()).add(hash);
+        loads[nodeIndex]++;
+        assignedKeys++;
+        if (!node.equals(current.nodeFor(hash))) overflow.put(hash, node);
+        return node;
+    }
+
+    // A tracked key is either in the overflow map or in its ring owner's index
+    private String holderOf(RingSnapshot current, long hash) {
+        String placed = overflow.get(hash);
+        if (placed != null) return placed;
+        String owner = current.nodeFor(hash);
+        KeyHashIndex keys = nodeToKeyHashes.get(owner);
+        return keys != null && keys.contains(hash) ? owner : null;
+    }
 
-        for (String key : keys) {
-            String newNode = getNode(key);
-            nodeToKeysMap.computeIfAbsent(newNode, k -> new HashSet<>()).add(key);
-            //logger.info("Key: " + key + " reassigned from " + removedNode + " to " + newNode);
+    // Lock-free lookup: the recorded placement of an overflowed key, otherwise the ring owner
+    private String nodeFor(RingSnapshot current, long hash) {
+        if (capacityFactor != 0) {
+            String placed = overflow.get(hash);
+            if (placed != null) return placed;
         }
+        return current.nodeFor(hash);
     }
 
+    @Override
     public String getNode(String key) {
-        if (ring.isEmpty()) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warning("Ring is empty, cannot assign key: " + key);
+            return null;
+        }
+        if (!metrics.sampleLookup()) {
+            return nodeFor(current, hashFunction.hash(key));
+        }
+        long start = System.nanoTime();
+        String node = nodeFor(current, hashFunction.hash(key));
+        metrics.recordLookup(System.nanoTime() - start);
+        return node;
+    }
+
+    /**
+     * Preference list for replication: the first {@code n} distinct physical nodes clockwise from the key, found
+     * in a single walk of the snapshot. Returns fewer than {@code n} nodes if the ring has fewer.
+     */
+    public List<String> getNodes(String key, int n) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warning("Ring is empty, cannot assign key: " + key);
+            return List.of();
+        }
+        String[] replicas = new String[Math.min(n, current.nodes.length)];
+        int found = 0;
+        int position = current.positionFor(hashFunction.hash(key));
+        for (int step = 0; step < current.hashes.length && found < replicas.length; step++) {
+            // Node names come from one table, so identity is enough to skip vnodes of a node already chosen
+            String node = current.nodes[current.nodeIndexes[position]];
+            boolean seen = false;
+            for (int i = 0; i < found && !seen; i++) {
+                seen = replicas[i] == node;
+            }
+            if (!seen) replicas[found++] = node;
+            if (++position == current.hashes.length) position = 0;
+        }
+        return Arrays.asList(replicas);
+    }
+
+    /**
+     * Routes a batch in one go and groups it by owner, ready for fan-out. The batch is resolved against a single
+     * snapshot; large batches are hashed, sorted and merged against the ring in parallel on the common pool.
+     */
+    public Map<String, List<String>> routeAll(List<String> keys) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warning("Ring is empty, cannot assign " + keys.size() + " keys");
+            return Map.of();
+        }
+        List<String> indexable = keys instanceof RandomAccess ? keys : new ArrayList<>(keys);
+        long[] hashes = new long[keys.size()];
+        int[] owners = BatchRouter.owners(current, indexable, hashFunction, hashes, ForkJoinPool.commonPool());
+        applyOverflow(current, hashes, owners);
+
+        int[] counts = countPerNode(current, owners);
+        List<List<String>> groups = new ArrayList<>(counts.length);
+        for (int count : counts) {
+            groups.add(new ArrayList<>(count));
+        }
+        for (int i = 0; i < owners.length; i++) {
+            groups.get(owners[i]).add(indexable.get(i));
+        }
+        Map<String, List<String>> routed = new HashMap<>(2 * counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) routed.put(current.nodes[i], groups.get(i));
+        }
+        return routed;
+    }
+
+    // Same as routeAll(List) for callers that already hold the ring hashes of their keys
+    public Map<String, long[]> routeAll(long[] hashes) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warning("Ring is empty, cannot assign " + hashes.length + " keys");
+            return Map.of();
+        }
+        int[] owners = BatchRouter.owners(current, null, hashFunction, hashes, ForkJoinPool.commonPool());
+        applyOverflow(current, hashes, owners);
+
+        int[] counts = countPerNode(current, owners);
+        long[][] groups = new long[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            groups[i] = new long[counts[i]];
+        }
+        int[] filled = new int[counts.length];
+        for (int i = 0; i < owners.length; i++) {
+            groups[owners[i]][filled[owners[i]]++] = hashes[i];
+        }
+        Map<String, long[]> routed = new HashMap<>(2 * counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) routed.put(current.nodes[i], groups[i]);
+        }
+        return routed;
+    }
+
+    // Bounded loads: redirect keys that addKey placed past their ring owner, as getNode does
+    private void applyOverflow(RingSnapshot current, long[] hashes, int[] owners) {
+        if (capacityFactor == 0 || overflow.isEmpty()) return;
+        Map<String, Integer> indexByNode = new HashMap<>(2 * current.nodes.length);
+        for (int i = 0; i < current.nodes.length; i++) {
+            indexByNode.put(current.nodes[i], i);
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            String placed = overflow.get(hashes[i]);
+            Integer index = placed == null ? null : indexByNode.get(placed);
+            if (index != null) owners[i] = index;
+        }
+    }
+
+    private static int[] countPerNode(RingSnapshot current, int[] owners) {
+        int[] counts = new int[current.nodes.length];
+        for (int owner : owners) {
+            counts[owner]++;
+        }
+        return counts;
+    }
+
+    // Returns the node holding the key; adding a key that is already tracked leaves it where it is. With bounded
+    // loads that may be clockwise past the ring owner, and getNode and routeAll follow it there
+    public synchronized String addKey(String key) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
             logger.warning("Ring is empty, cannot assign key: " + key);
             return null;
         }
-        long hash = hashSHA256(key);
-        Map.Entry<Long, String> entry = ring.ceilingEntry(hash);
-        if (entry == null) return ring.firstEntry().getValue();
-        return entry.getValue();
+        return place(current, hashFunction.hash(key));
     }
 
-    public String addKey(String key) {
-        String assignedNode = getNode(key);
-        if (assignedNode != null) {
-            nodeToKeysMap.computeIfAbsent(assignedNode, k -> new HashSet<>()).add(key);
+    // Ranges that changed hands in the most recent addNode/removeNode, with the number of keys each one carried
+    public MigrationPlan lastMigrationPlan() {
+        return lastMigrationPlan;
+    }
+
+    /**
+     * Pull-based metrics: per-node key counts and their coefficient of variation, keys moved and ring build time
+     * of membership changes, and the sampled lookup latency histogram. Costs O(nodes), so it is fine to scrape.
+     */
+    public synchronized RingStats stats() {
+        RingSnapshot current = snapshot;
+        // Counted from the per-node indexes, which hold each key once, rather than from the placement bookkeeping
+        int[] counts = new int[current.nodes.length];
+        long total = 0;
+        for (int i = 0; i < current.nodes.length; i++) {
+            KeyHashIndex keys = nodeToKeyHashes.get(current.nodes[i]);
+            counts[i] = keys == null ? 0 : keys.size();
+            total += counts[i];
+        }
+        Map<String, Integer> keysPerNode = new TreeMap<>();
+        // Each node is compared against its weighted share, so with equal weights this is the plain CV
+        double squaredDeviation = 0;
+        for (int i = 0; i < current.nodes.length; i++) {
+            keysPerNode.put(current.nodes[i], counts[i]);
+            double expected = capacityShares[i] * total;
+            if (expected > 0) squaredDeviation += (counts[i] / expected - 1) * (counts[i] / expected - 1);
         }
-        return  assignedNode;
+        double cv = current.nodes.length == 0 ? 0 : Math.sqrt(squaredDeviation / current.nodes.length);
+        return new RingStats(keysPerNode, cv, metrics.membershipChanges(), metrics.lastKeysMoved(),
+                metrics.totalKeysMoved(), metrics.lastBuildNanos(), metrics.totalBuildNanos(),
+                metrics.sampledLookups(), metrics.latencyHistogram());
     }
 
-    public void printDistribution() {
-        for(Map.Entry<String, Set<String>> entry : nodeToKeysMap.entrySet()) {
+    public synchronized void printDistribution() {
+        for(Map.Entry<String, KeyHashIndex> entry : nodeToKeyHashes.entrySet()) {
             System.out.println(entry.getKey() + " -> " + entry.getValue().size());
         }
     }
 
+    @Override
+    public long memoryFootprintBytes() {
+        RingSnapshot current = snapshot;
+        // TreeMap entry plus boxed Long key per position, and the snapshot's parallel arrays
+        return 56L * current.hashes.length + 12L * current.hashes.length + 4L * current.nodes.length + 48;
+    }
+
     public void printNodes() {
-        System.out.println("Current Nodes: " + new HashSet<>(ring.values()));
+        System.out.println("Current Nodes: " + Set.of(snapshot.nodes));
     }
 }
\ No newline at end of file
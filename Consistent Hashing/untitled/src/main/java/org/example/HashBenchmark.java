@@ -0,0 +1,83 @@
+package org.example;
+
+import org.example.hash.HashFunction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the ring hash functions on the keys Main routes: raw hashing cost, how evenly the hashes spread over
+ * buckets (chi-square, ~1.0 per degree of freedom is ideal), and the resulting spread across five servers.
+ */
+public class HashBenchmark {
+    private static final int KEY_COUNT = 1_000_000;
+    private static final int BUCKETS = 1021;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Map<String, HashFunction> functions = new LinkedHashMap<>();
+        functions.put("murmur3", HashFunction.murmur3());
+        functions.put("xxHash64", HashFunction.xxHash64());
+        functions.put("md5 (compat)", HashFunction.md5());
+        functions.put("sha256 (compat)", HashFunction.sha256());
+
+        String[] keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "request-" + i;
+        }
+
+        System.out.printf("%-16s %10s %14s %12s%n", "function", "ns/hash", "chi2/dof", "ring cv");
+        for (Map.Entry<String, HashFunction> entry : functions.entrySet()) {
+            HashFunction function = entry.getValue();
+            double nsPerHash = measure(function, keys);
+            double chiSquare = chiSquarePerDof(function, keys);
+            double ringCv = ringCoefficientOfVariation(function, keys);
+            System.out.printf("%-16s %10.1f %14.3f %12.3f%n", entry.getKey(), nsPerHash, chiSquare, ringCv);
+        }
+    }
+
+    private static double measure(HashFunction function, String[] keys) {
+        long sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String key : keys) {
+                sink += function.hash(key);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == 42) System.out.println();
+        return (double) best / keys.length;
+    }
+
+    private static double chiSquarePerDof(HashFunction function, String[] keys) {
+        long[] counts = new long[BUCKETS];
+        for (String key : keys) {
+            counts[(int) Long.remainderUnsigned(function.hash(key), BUCKETS)]++;
+        }
+        double expected = (double) keys.length / BUCKETS;
+        double chiSquare = 0;
+        for (long count : counts) {
+            double diff = count - expected;
+            chiSquare += diff * diff / expected;
+        }
+        return chiSquare / (BUCKETS - 1);
+    }
+
+    private static double ringCoefficientOfVariation(HashFunction function, String[] keys) {
+        ConsistentHashing ring = new ConsistentHashing(100, function);
+        for (int i = 1; i <= 5; i++) {
+            ring.addNode("Server-" + i);
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String key : keys) {
+            counts.merge(ring.getNode(key), 1, Integer::sum);
+        }
+        double mean = (double) keys.length / counts.size();
+        double variance = 0;
+        for (int count : counts.values()) {
+            variance += (count - mean) * (count - mean);
+        }
+        return Math.sqrt(variance / counts.size()) / mean;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keys owned by one node, stored only as their 64-bit ring hashes in a {@code long[]}, so a million keys cost 8 MB
+ * here instead of a HashSet of Strings. It is a set: the front of the array is sorted and binary searched, new
+ * hashes go to a short unsorted tail that is scanned linearly and merged into the sorted part once it outgrows
+ * about the square root of the size, which keeps both the membership check and the amortized merge at O(sqrt n).
+ */
+final class KeyHashIndex {
+    private static final int MIN_TAIL = 64;
+
+    private long[] hashes = new long[16];
+    private int size;
+    // hashes[0, sortedSize) is sorted and distinct; hashes[sortedSize, size) is the unsorted tail
+    private int sortedSize;
+
+    // Returns false if the hash is already present
+    boolean add(long hash) {
+        if (contains(hash)) return false;
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size << 1);
+        }
+        hashes[size++] = hash;
+        if (size - sortedSize > Math.max(MIN_TAIL, (int) Math.sqrt(size))) {
+            mergeTail();
+        }
+        return true;
+    }
+
+    // Hashes extracted from another node's index; they are sorted and distinct already
+    void addAll(long[] moved) {
+        if (size + moved.length > hashes.length) {
+            hashes = Arrays.copyOf(hashes, Math.max(size + moved.length, size << 1));
+        }
+        System.arraycopy(moved, 0, hashes, size, moved.length);
+        size += moved.length;
+        compact();
+    }
+
+    boolean contains(long hash) {
+        if (Arrays.binarySearch(hashes, 0, sortedSize, hash) >= 0) return true;
+        for (int i = sortedSize; i < size; i++) {
+            if (hashes[i] == hash) return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        compact();
+        return Arrays.copyOf(hashes, size);
+    }
+
+    /**
+     * Removes every hash that falls in one of the ring ranges and returns them, one array per range. Each range is
+     * located by binary search and copied out as a slice, and the survivors are closed up in a single pass.
+     */
+    long[][] extract(List<RangeMove> ranges) {
+        compact();
+        // Half-open index intervals [from, to) to cut out, tagged with their range; ranges never overlap
+        int[] froms = new int[2 * ranges.size()];
+        int[] tos = new int[froms.length];
+        int[] owners = new int[froms.length];
+        int[] lengths = new int[ranges.size()];
+        int count = 0;
+        for (int r = 0; r < ranges.size(); r++) {
+            RangeMove range = ranges.get(r);
+            int start = upperBound(range.startExclusive());
+            int end = upperBound(range.endInclusive());
+            if (range.startExclusive() < range.endInclusive()) {
+                froms[count] = start;
+                tos[count] = end;
+                owners[count++] = r;
+            } else {
+                // Wraps past Long.MAX_VALUE: (start, MAX] and [MIN, end]
+                froms[count] = start;
+                tos[count] = size;
+                owners[count++] = r;
+                froms[count] = 0;
+                tos[count] = end;
+                owners[count++] = r;
+            }
+        }
+
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) froms[i] << 32 | i;
+            lengths[owners[i]] += tos[i] - froms[i];
+        }
+        Arrays.sort(order);
+        long[][] out = new long[ranges.size()][];
+        int[] filled = new int[ranges.size()];
+        for (int r = 0; r < out.length; r++) {
+            out[r] = new long[lengths[r]];
+        }
+
+        int write = 0;
+        int read = 0;
+        for (long entry : order) {
+            int i = (int) entry;
+            int from = froms[i];
+            int length = tos[i] - from;
+            if (length == 0) continue;
+            System.arraycopy(hashes, read, hashes, write, from - read);
+            write += from - read;
+            System.arraycopy(hashes, from, out[owners[i]], filled[owners[i]], length);
+            filled[owners[i]] += length;
+            read = tos[i];
+        }
+        System.arraycopy(hashes, read, hashes, write, size - read);
+        size = write + size - read;
+        sortedSize = size;
+        return out;
+    }
+
+    // First index holding a value strictly greater than bound
+    private int upperBound(long bound) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (hashes[mid] <= bound) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Sorts the tail and merges it into the sorted part from the back, so the sorted part moves at most once
+    private void mergeTail() {
+        long[] tail = Arrays.copyOfRange(hashes, sortedSize, size);
+        Arrays.sort(tail);
+        int write = size - 1;
+        int left = sortedSize - 1;
+        for (int right = tail.length - 1; right >= 0; ) {
+            if (left >= 0 && hashes[left] > tail[right]) {
+                hashes[write--] = hashes[left--];
+            } else {
+                hashes[write--] = tail[right--];
+            }
+        }
+        sortedSize = size;
+    }
+
+    private void compact() {
+        if (sortedSize == size) return;
+        Arrays.sort(hashes, 0, size);
+        int write = size == 0 ? 0 : 1;
+        for (int read = 1; read < size; read++) {
+            if (hashes[read] != hashes[write - 1]) hashes[write++] = hashes[read];
+        }
+        size = write;
+        sortedSize = size;
+    }
+}
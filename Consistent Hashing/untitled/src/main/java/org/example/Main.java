@@ -1,6 +1,9 @@
 package org.example;
 
-import java.util.HashMap;
+import org.example.hash.HashFunction;
+import org.example.membership.MemberStatus;
+import org.example.membership.RingMembershipUpdater;
+
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -8,16 +11,25 @@ public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
-        ConsistentHashing ch = new ConsistentHashing(100);
+        simulate(new ConsistentHashing(100, HashFunction.murmur3()));
+
+        // Same cluster with bounded loads: no server may exceed 1.05x the average
+        System.out.println("Bounded loads (c = 1.05):");
+        simulate(new ConsistentHashing(100, HashFunction.murmur3(), 1.05));
+    }
 
+    private static void simulate(ConsistentHashing ch) {
         // Add nodes to the system
         ch.addNode("Server-1");
         ch.addNode("Server-2");
         ch.addNode("Server-3");
         ch.addNode("Server-4");
         ch.addNode("Server-5");
+        // Twice the capacity of the others, so it gets twice the virtual nodes
+        ch.addNode("Server-6", 2.0);
 
         ch.printNodes();
+        System.out.println("Replicas of request-42: " + ch.getNodes("request-42", 3));
 
         // Simulating 1 Million Requests
         int requestCount = 1_000_000;
@@ -33,7 +45,20 @@ public class Main {
 
         ch.removeNode("Server-1");
         ch.removeNode("Server-2");
+        MigrationPlan plan = ch.lastMigrationPlan();
+        System.out.println("Removing Server-2 moved " + plan.keysMoved() + " keys in " + plan.moves().size() + " ranges");
         System.out.println("Request Distribution:");
         ch.printDistribution();
+
+        for (int i = 0; i < requestCount; i++) {
+            ch.getNode("request-" + i);
+        }
+        System.out.println("Stats: " + ch.stats());
+
+        // One gossip round: Server-3 turns SUSPECT and Server-4 DEAD, applied as a single rebuild
+        RingMembershipUpdater updater = new RingMembershipUpdater(ch);
+        updater.onMembershipChange("Server-5", Map.of("Server-3", MemberStatus.SUSPECT, "Server-4", MemberStatus.DEAD));
+        System.out.println("After gossip round moved " + ch.lastMigrationPlan().keysMoved() + " keys:");
+        ch.printDistribution();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a membership change does to key ownership, expressed as ring ranges handed from one node to another.
+ * Derived purely from the two snapshots in O(vnodes), independent of how many keys are stored.
+ */
+public record MigrationPlan(List<RangeMove> moves, long reassignedKeys) {
+    static final MigrationPlan EMPTY = new MigrationPlan(List.of(), 0);
+
+    // reassignedKeys counts keys of a leaving node that had to be placed one by one (bounded loads)
+    public long keysMoved() {
+        long total = reassignedKeys;
+        for (RangeMove move : moves) {
+            total += move.keys();
+        }
+        return total;
+    }
+
+    /**
+     * Merge-walks the positions of both snapshots in ascending order. Between two consecutive positions of the
+     * union neither ring has a boundary, so the whole segment has a single owner before and a single owner after.
+     */
+    static List<RangeMove> between(RingSnapshot before, RingSnapshot after) {
+        long[] h0 = before.hashes;
+        long[] h1 = after.hashes;
+        if (h0.length == 0 || h1.length == 0) return List.of();
+
+        List<RangeMove> moves = new ArrayList<>();
+        // The segment below the smallest position wraps around from the largest one
+        long previous = Math.max(h0[h0.length - 1], h1[h1.length - 1]);
+        int i0 = 0;
+        int i1 = 0;
+        while (i0 < h0.length || i1 < h1.length) {
+            long boundary;
+            if (i1 == h1.length || (i0 < h0.length && h0[i0] <= h1[i1])) {
+                boundary = h0[i0];
+            } else {
+                boundary = h1[i1];
+            }
+            String from = before.nodes[before.nodeIndexes[i0 == h0.length ? 0 : i0]];
+            String to = after.nodes[after.nodeIndexes[i1 == h1.length ? 0 : i1]];
+            if (!from.equals(to)) {
+                int last = moves.size() - 1;
+                RangeMove tail = last < 0 ? null : moves.get(last);
+                if (tail != null && tail.endInclusive() == previous && tail.from().equals(from) && tail.to().equals(to)) {
+                    moves.set(last, new RangeMove(tail.startExclusive(), boundary, from, to, 0));
+                } else {
+                    moves.add(new RangeMove(previous, boundary, from, to, 0));
+                }
+            }
+            previous = boundary;
+            while (i0 < h0.length && h0[i0] <= boundary) i0++;
+            while (i1 < h1.length && h1[i1] <= boundary) i1++;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example;
+
+/**
+ * A slice of the ring, {@code (startExclusive, endInclusive]}, whose keys change owner. A range with
+ * {@code startExclusive >= endInclusive} wraps past {@code Long.MAX_VALUE} back to {@code Long.MIN_VALUE}.
+ * {@code keys} is the number of tracked keys that actually moved with it.
+ */
+public record RangeMove(long startExclusive, long endInclusive, String from, String to, int keys) {
+    RangeMove withKeys(int keys) {
+        return new RangeMove(startExclusive, endInclusive, from, to, keys);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters the ring updates as it works. Lookups are timed for one call in {@link #SAMPLE_RATE} only and land in
+ * power-of-two nanosecond buckets backed by LongAdders, so the hot path pays a random draw and nothing else on
+ * the calls it does not sample. Membership counters are only written under the ring's monitor.
+ */
+final class RingMetrics {
+    static final int SAMPLE_RATE = 64;
+    static final int LATENCY_BUCKETS = 32;
+
+    private final LongAdder[] lookupLatency = new LongAdder[LATENCY_BUCKETS];
+    private final LongAdder sampledLookups = new LongAdder();
+    private volatile long membershipChanges;
+    private volatile long lastKeysMoved;
+    private volatile long totalKeysMoved;
+    private volatile long lastBuildNanos;
+    private volatile long totalBuildNanos;
+
+    RingMetrics() {
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            lookupLatency[i] = new LongAdder();
+        }
+    }
+
+    boolean sampleLookup() {
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+    }
+
+    // Bucket i counts lookups that took less than 2^i ns (and at least 2^(i-1))
+    void recordLookup(long nanos) {
+        int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+        lookupLatency[bucket].increment();
+        sampledLookups.increment();
+    }
+
+    void recordMembershipChange(long buildNanos, long keysMoved) {
+        membershipChanges++;
+        lastBuildNanos = buildNanos;
+        totalBuildNanos += buildNanos;
+        lastKeysMoved = keysMoved;
+        totalKeysMoved += keysMoved;
+    }
+
+    long[] latencyHistogram() {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = lookupLatency[i].sum();
+        }
+        return histogram;
+    }
+
+    long sampledLookups() {
+        return sampledLookups.sum();
+    }
+
+    long membershipChanges() {
+        return membershipChanges;
+    }
+
+    long lastKeysMoved() {
+        return lastKeysMoved;
+    }
+
+    long totalKeysMoved() {
+        return totalKeysMoved;
+    }
+
+    long lastBuildNanos() {
+        return lastBuildNanos;
+    }
+
+    long totalBuildNanos() {
+        return totalBuildNanos;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Immutable, array-backed view of the ring. Positions are kept as a sorted primitive {@code long[]} with a parallel
+ * {@code int[]} pointing into the node table, so a lookup is a binary search that never allocates and can be
+ * shared by any number of reader threads once published through a volatile field.
+ */
+final class RingSnapshot {
+    static final RingSnapshot EMPTY = new RingSnapshot(new long[0], new int[0], new String[0]);
+
+    final long[] hashes;
+    final int[] nodeIndexes;
+    final String[] nodes;
+
+    private RingSnapshot(long[] hashes, int[] nodeIndexes, String[] nodes) {
+        this.hashes = hashes;
+        this.nodeIndexes = nodeIndexes;
+        this.nodes = nodes;
+    }
+
+    static RingSnapshot of(SortedMap<Long, String> ring) {
+        if (ring.isEmpty()) return EMPTY;
+        long[] hashes = new long[ring.size()];
+        int[] nodeIndexes = new int[ring.size()];
+        Map<String, Integer> indexByNode = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            hashes[i] = entry.getKey();
+            nodeIndexes[i] = indexByNode.computeIfAbsent(entry.getValue(), n -> indexByNode.size());
+            i++;
+        }
+        String[] nodes = new String[indexByNode.size()];
+        indexByNode.forEach((node, index) -> nodes[index] = node);
+        return new RingSnapshot(hashes, nodeIndexes, nodes);
+    }
+
+    boolean isEmpty() {
+        return hashes.length == 0;
+    }
+
+    // Index of the first position clockwise from hash (ceiling), wrapping around to 0 past the last position
+    int positionFor(long hash) {
+        int low = 0;
+        int high = hashes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (hashes[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low == hashes.length ? 0 : low;
+    }
+
+    String nodeFor(long hash) {
+        return nodes[nodeIndexes[positionFor(hash)]];
+    }
+}
@@ -0,0 +1,41 @@
+package org.example;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of the ring returned by {@link ConsistentHashing#stats()}.
+ * <p>
+ * {@code coefficientOfVariation} measures each node's key count against its weighted share of all keys.
+ * <p>
+ * {@code lookupLatencyHistogram[i]} counts sampled lookups that took under 2^i ns; only one lookup in
+ * {@code RingMetrics.SAMPLE_RATE} is timed, so {@code sampledLookups} is a fraction of all lookups.
+ */
+public record RingStats(Map<String, Integer> keysPerNode,
+                        double coefficientOfVariation,
+                        long membershipChanges,
+                        long lastKeysMoved,
+                        long totalKeysMoved,
+                        long lastBuildNanos,
+                        long totalBuildNanos,
+                        long sampledLookups,
+                        long[] lookupLatencyHistogram) {
+
+    // Upper bound in ns of the bucket that holds the given quantile of sampled lookups, e.g. 0.99 for p99
+    public long lookupLatencyPercentile(double quantile) {
+        long target = (long) Math.ceil(quantile * sampledLookups);
+        long seen = 0;
+        for (int i = 0; i < lookupLatencyHistogram.length; i++) {
+            seen += lookupLatencyHistogram[i];
+            if (seen >= target && seen > 0) return 1L << i;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("keys=%s cv=%.4f changes=%d moved(last/total)=%d/%d build(last)=%.2fms "
+                        + "lookup p50<%dns p99<%dns",
+                keysPerNode, coefficientOfVariation, membershipChanges, lastKeysMoved, totalKeysMoved,
+                lastBuildNanos / 1e6, lookupLatencyPercentile(0.5), lookupLatencyPercentile(0.99));
+    }
+}
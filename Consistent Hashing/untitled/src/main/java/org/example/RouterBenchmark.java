@@ -0,0 +1,93 @@
+package org.example;
+
+import org.example.hash.HashFunction;
+import org.example.router.JumpHashRouter;
+import org.example.router.KeyRouter;
+import org.example.router.MaglevRouter;
+import org.example.router.RendezvousRouter;
+import org.example.router.SkeletonRendezvousRouter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Runs every KeyRouter engine over the same keys and cluster and reports lookup cost, memory footprint and the
+ * fraction of keys that change owner when a node joins or leaves (ideal: 1/(n+1) on join, 1/n on leave), for
+ * several cluster sizes, so the cheapest router can be picked per size.
+ */
+public class RouterBenchmark {
+    private static final int KEY_COUNT = 200_000;
+    private static final int[] CLUSTER_SIZES = {5, 50, 500};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        HashFunction hash = HashFunction.murmur3();
+        Map<String, IntFunction<KeyRouter>> engines = new LinkedHashMap<>();
+        engines.put("ring (100 vnodes)", servers -> new ConsistentHashing(100, hash));
+        engines.put("jump", servers -> new JumpHashRouter(hash));
+        engines.put("maglev", servers -> new MaglevRouter(hash));
+        engines.put("rendezvous", servers -> new RendezvousRouter(hash));
+        engines.put("hrw skeleton", servers ->
+                new SkeletonRendezvousRouter(hash, (int) Math.ceil(Math.sqrt(servers))));
+
+        String[] keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "request-" + i;
+        }
+
+        for (int servers : CLUSTER_SIZES) {
+            System.out.printf("%n%d servers%n", servers);
+            System.out.printf("%-18s %10s %12s %12s %12s%n", "engine", "ns/lookup", "bytes", "moved(add)", "moved(rm)");
+            for (Map.Entry<String, IntFunction<KeyRouter>> entry : engines.entrySet()) {
+                KeyRouter router = entry.getValue().apply(servers);
+                for (int i = 1; i <= servers; i++) {
+                    router.addNode("Server-" + i);
+                }
+                double nsPerLookup = measure(router, keys);
+                long bytes = router.memoryFootprintBytes();
+
+                String[] before = owners(router, keys);
+                router.addNode("Server-" + (servers + 1));
+                String[] afterAdd = owners(router, keys);
+                router.removeNode("Server-2");
+                String[] afterRemove = owners(router, keys);
+
+                System.out.printf("%-18s %10.1f %12d %12.4f %12.4f%n", entry.getKey(), nsPerLookup, bytes,
+                        movedFraction(before, afterAdd), movedFraction(afterAdd, afterRemove));
+            }
+            System.out.printf("%-18s %10s %12s %12.4f %12.4f%n", "ideal", "", "",
+                    1.0 / (servers + 1), 1.0 / (servers + 1));
+        }
+    }
+
+    static double measure(KeyRouter router, String[] keys) {
+        long sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String key : keys) {
+                sink += router.getNode(key).length();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == 42) System.out.println();
+        return (double) best / keys.length;
+    }
+
+    static String[] owners(KeyRouter router, String[] keys) {
+        String[] owners = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            owners[i] = router.getNode(keys[i]);
+        }
+        return owners;
+    }
+
+    static double movedFraction(String[] before, String[] after) {
+        int moved = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (!before[i].equals(after[i])) moved++;
+        }
+        return (double) moved / before.length;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.hash;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Little-endian reads over the two inputs we hash, so each algorithm is written once. A {@link CharSequence} is
+ * read as its UTF-16 code units, two bytes per char, which avoids encoding the key into a temporary array.
+ */
+interface ByteSource<T> {
+    long getLong(T source, int offset);
+
+    int getInt(T source, int offset);
+
+    int getByte(T source, int offset);
+
+    ByteSource<byte[]> BYTES = new ByteSource<>() {
+        private final VarHandle longs = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+        private final VarHandle ints = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+        @Override
+        public long getLong(byte[] source, int offset) {
+            return (long) longs.get(source, offset);
+        }
+
+        @Override
+        public int getInt(byte[] source, int offset) {
+            return (int) ints.get(source, offset);
+        }
+
+        @Override
+        public int getByte(byte[] source, int offset) {
+            return source[offset] & 0xFF;
+        }
+    };
+
+    // Offsets are in bytes relative to the start of the sequence; long and int reads are always char aligned
+    ByteSource<CharSequence> CHARS = new ByteSource<>() {
+        @Override
+        public long getLong(CharSequence source, int offset) {
+            int i = offset >>> 1;
+            return (long) source.charAt(i)
+                    | (long) source.charAt(i + 1) << 16
+                    | (long) source.charAt(i + 2) << 32
+                    | (long) source.charAt(i + 3) << 48;
+        }
+
+        @Override
+        public int getInt(CharSequence source, int offset) {
+            int i = offset >>> 1;
+            return source.charAt(i) | source.charAt(i + 1) << 16;
+        }
+
+        @Override
+        public int getByte(CharSequence source, int offset) {
+            char c = source.charAt(offset >>> 1);
+            return (offset & 1) == 0 ? c & 0xFF : c >>> 8;
+        }
+    };
+}
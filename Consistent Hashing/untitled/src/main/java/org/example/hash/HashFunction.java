@@ -0,0 +1,34 @@
+package org.example.hash;
+
+/**
+ * 64-bit hash used to place nodes and keys on the ring. Implementations must be thread-safe.
+ * <p>
+ * {@link #hash(CharSequence)} hashes the UTF-16 code units of the sequence directly so routing a {@code String}
+ * never allocates; it is therefore not expected to match {@link #hash(byte[])} of the UTF-8 bytes.
+ */
+public interface HashFunction {
+    long hash(byte[] data, int offset, int length);
+
+    long hash(CharSequence data);
+
+    default long hash(byte[] data) {
+        return hash(data, 0, data.length);
+    }
+
+    static HashFunction murmur3() {
+        return Murmur3HashFunction.DEFAULT;
+    }
+
+    static HashFunction xxHash64() {
+        return XxHash64HashFunction.DEFAULT;
+    }
+
+    // Compatibility options: same 32-bit positions as the original MessageDigest based ring
+    static HashFunction md5() {
+        return new MessageDigestHashFunction("MD5");
+    }
+
+    static HashFunction sha256() {
+        return new MessageDigestHashFunction("SHA-256");
+    }
+}
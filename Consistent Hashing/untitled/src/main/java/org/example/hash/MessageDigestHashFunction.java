@@ -0,0 +1,44 @@
+package org.example.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Logger;
+
+/**
+ * Cryptographic digest truncated to its first four bytes, matching the positions the ring used before the
+ * fast hashes were added. Kept for compatibility; every call encodes the key and allocates a digest array.
+ */
+public final class MessageDigestHashFunction implements HashFunction {
+    private static final Logger logger = Logger.getLogger(MessageDigestHashFunction.class.getName());
+    // MessageDigest is stateful, so every thread gets its own instance instead of sharing one across lookups
+    private final ThreadLocal<MessageDigest> digest;
+
+    public MessageDigestHashFunction(String algorithm) {
+        this.digest = ThreadLocal.withInitial(() -> newDigest(algorithm));
+        digest.get();
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            logger.severe("Hash Algorithm not found: " + e.getMessage());
+            throw new RuntimeException("Hash Algorithm not found", e);
+        }
+    }
+
+    @Override
+    public long hash(byte[] data, int offset, int length) {
+        MessageDigest md = digest.get();
+        md.update(data, offset, length);
+        byte[] digest = md.digest();
+        return ((long) (digest[3] & 0xFF) << 24) | ((long) (digest[2] & 0xFF) << 16) |
+                ((long) (digest[1] & 0xFF) << 8) | (digest[0] & 0xFF);
+    }
+
+    @Override
+    public long hash(CharSequence data) {
+        return hash(data.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
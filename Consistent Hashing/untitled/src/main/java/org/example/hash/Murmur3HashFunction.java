@@ -0,0 +1,85 @@
+package org.example.hash;
+
+/**
+ * MurmurHash3 x64_128, returning the first 64 bits of the 128-bit result.
+ */
+public final class Murmur3HashFunction implements HashFunction {
+    static final Murmur3HashFunction DEFAULT = new Murmur3HashFunction(0);
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long seed;
+
+    public Murmur3HashFunction(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long hash(byte[] data, int offset, int length) {
+        return hash(ByteSource.BYTES, data, offset, length);
+    }
+
+    @Override
+    public long hash(CharSequence data) {
+        return hash(ByteSource.CHARS, data, 0, data.length() << 1);
+    }
+
+    private <T> long hash(ByteSource<T> source, T data, int offset, int length) {
+        long h1 = seed;
+        long h2 = seed;
+        int end = offset + (length & ~15);
+        for (int i = offset; i < end; i += 16) {
+            h1 ^= mixK1(source.getLong(data, i));
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(source.getLong(data, i + 8));
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int remaining = length & 15;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = remaining - 1; i >= 8; i--) {
+            k2 = (k2 << 8) | source.getByte(data, end + i);
+        }
+        for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+            k1 = (k1 << 8) | source.getByte(data, end + i);
+        }
+        if (remaining > 8) h2 ^= mixK2(k2);
+        if (remaining > 0) h1 ^= mixK1(k1);
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.hash;
+
+/**
+ * xxHash64, processing 32-byte stripes with four independent accumulators.
+ */
+public final class XxHash64HashFunction implements HashFunction {
+    static final XxHash64HashFunction DEFAULT = new XxHash64HashFunction(0);
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private final long seed;
+
+    public XxHash64HashFunction(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long hash(byte[] data, int offset, int length) {
+        return hash(ByteSource.BYTES, data, offset, length);
+    }
+
+    @Override
+    public long hash(CharSequence data) {
+        return hash(ByteSource.CHARS, data, 0, data.length() << 1);
+    }
+
+    private <T> long hash(ByteSource<T> source, T data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, source.getLong(data, i));
+                v2 = round(v2, source.getLong(data, i + 8));
+                v3 = round(v3, source.getLong(data, i + 16));
+                v4 = round(v4, source.getLong(data, i + 24));
+                i += 32;
+            } while (i <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+
+        h += length;
+        for (; i + 8 <= end; i += 8) {
+            h ^= round(0, source.getLong(data, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= end) {
+            h ^= (source.getInt(data, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < end; i++) {
+            h ^= source.getByte(data, i) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long h, long v) {
+        h ^= round(0, v);
+        return h * P1 + P4;
+    }
+}
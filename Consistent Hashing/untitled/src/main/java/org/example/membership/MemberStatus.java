@@ -0,0 +1,4 @@
+package org.example.membership;
+
+// Mirrors GossipFailureDetector.Status in the ad-hoc project
+public enum MemberStatus { ALIVE, SUSPECT, DEAD }
@@ -0,0 +1,12 @@
+package org.example.membership;
+
+import java.util.Map;
+
+/**
+ * Same shape as {@code GossipFailureDetector.MembershipListener}: one call per gossip round carrying every node
+ * whose status changed in that round, as seen by {@code observerId}. A service that depends on both projects
+ * bridges the two with a lambda that maps the status enums by name.
+ */
+public interface MembershipListener {
+    void onMembershipChange(String observerId, Map<String, MemberStatus> changes);
+}
@@ -0,0 +1,70 @@
+package org.example.membership;
+
+import org.example.ConsistentHashing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a ring in line with the failure detector. SUSPECT nodes are demoted straight away by shrinking their
+ * weight, so they shed most of their ranges without losing them all on a false alarm; DEAD nodes are removed;
+ * ALIVE nodes get their registered weight back. Each gossip round turns into at most one snapshot rebuild.
+ */
+public class RingMembershipUpdater implements MembershipListener {
+    private static final Logger logger = Logger.getLogger(RingMembershipUpdater.class.getName());
+    public static final double DEFAULT_SUSPECT_WEIGHT_FACTOR = 0.25;
+
+    private final ConsistentHashing ring;
+    private final double suspectWeightFactor;
+    private final Map<String, Double> baseWeights = new HashMap<>();
+    private final Map<String, MemberStatus> applied = new HashMap<>();
+
+    public RingMembershipUpdater(ConsistentHashing ring) {
+        this(ring, DEFAULT_SUSPECT_WEIGHT_FACTOR);
+    }
+
+    public RingMembershipUpdater(ConsistentHashing ring, double suspectWeightFactor) {
+        if (suspectWeightFactor <= 0 || suspectWeightFactor >= 1) {
+            throw new IllegalArgumentException("Suspect weight factor must be in (0, 1): " + suspectWeightFactor);
+        }
+        this.ring = ring;
+        this.suspectWeightFactor = suspectWeightFactor;
+    }
+
+    // Capacity weight the node gets back whenever it is ALIVE; unregistered nodes keep the weight they had on the
+    // ring when their status first changed, or 1.0 if they were not on it
+    public synchronized void register(String node, double weight) {
+        baseWeights.put(node, weight);
+    }
+
+    @Override
+    public synchronized void onMembershipChange(String observerId, Map<String, MemberStatus> changes) {
+        Map<String, Double> weights = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, MemberStatus> change : changes.entrySet()) {
+            String node = change.getKey();
+            MemberStatus status = change.getValue();
+            MemberStatus previous = applied.get(node);
+            // A node already removed as DEAD only comes back through ALIVE
+            if (status == previous || (status == MemberStatus.SUSPECT && previous == MemberStatus.DEAD)) {
+                continue;
+            }
+            double base = baseWeights.computeIfAbsent(node, n -> {
+                Double current = ring.getWeight(n);
+                return current == null ? 1.0 : current;
+            });
+            switch (status) {
+                case ALIVE -> weights.put(node, base);
+                case SUSPECT -> weights.put(node, base * suspectWeightFactor);
+                case DEAD -> removed.add(node);
+            }
+            applied.put(node, status);
+        }
+        if (weights.isEmpty() && removed.isEmpty()) return;
+        logger.info("Applying gossip round from " + observerId + ": " + changes);
+        ring.updateMembership(weights, removed);
+    }
+}
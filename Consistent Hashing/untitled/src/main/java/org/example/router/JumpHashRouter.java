@@ -0,0 +1,69 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Jump Consistent Hash (Lamping and Veach): no ring at all, just the node array, and O(ln n) arithmetic per lookup.
+ * <p>
+ * Buckets are numbered, so only appending and removing the last node are minimal moves. Removing any other node
+ * moves the last node into its slot, which also relocates the keys that were on that last node.
+ */
+public class JumpHashRouter implements KeyRouter {
+    private static final Logger logger = Logger.getLogger(JumpHashRouter.class.getName());
+    private final HashFunction hashFunction;
+    private volatile String[] nodes = new String[0];
+
+    public JumpHashRouter(HashFunction hashFunction) {
+        this.hashFunction = hashFunction;
+    }
+
+    @Override
+    public synchronized void addNode(String node) {
+        String[] next = Arrays.copyOf(nodes, nodes.length + 1);
+        next[nodes.length] = node;
+        nodes = next;
+        logger.info("Node added: " + node);
+    }
+
+    @Override
+    public synchronized void removeNode(String node) {
+        String[] current = nodes;
+        int index = Arrays.asList(current).indexOf(node);
+        if (index < 0) return;
+        String[] next = Arrays.copyOf(current, current.length - 1);
+        if (index < next.length) {
+            next[index] = current[current.length - 1];
+        }
+        nodes = next;
+        logger.info("Node removed: " + node);
+    }
+
+    @Override
+    public String getNode(String key) {
+        String[] current = nodes;
+        if (current.length == 0) {
+            logger.warning("No nodes, cannot assign key: " + key);
+            return null;
+        }
+        return current[jump(hashFunction.hash(key), current.length)];
+    }
+
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return 16 + 4L * nodes.length;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.router;
+
+/**
+ * Maps keys to the node that owns them. Lookups must be safe to call from many threads while membership changes.
+ */
+public interface KeyRouter {
+    String getNode(String key);
+
+    void addNode(String node);
+
+    void removeNode(String node);
+
+    // Rough size of the routing structures in bytes, excluding the node name strings themselves
+    long memoryFootprintBytes();
+}
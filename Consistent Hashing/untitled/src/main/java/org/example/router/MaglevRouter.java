@@ -0,0 +1,123 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Maglev hashing (Eisenbud et al.): every node walks its own permutation of a prime-sized lookup table and the
+ * nodes take turns claiming free slots, so each node owns an almost equal share of slots. A lookup is one table
+ * index; membership changes rebuild the table, which costs O(M log M) and moves slightly more than the ideal 1/n.
+ */
+public class MaglevRouter implements KeyRouter {
+    private static final Logger logger = Logger.getLogger(MaglevRouter.class.getName());
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private final HashFunction hashFunction;
+    private final int tableSize;
+    // Sorted so the table only depends on who is a member, not on the order they joined in
+    private final TreeSet<String> members = new TreeSet<>();
+    private volatile Table table = Table.EMPTY;
+
+    public MaglevRouter(HashFunction hashFunction) {
+        this(hashFunction, DEFAULT_TABLE_SIZE);
+    }
+
+    public MaglevRouter(HashFunction hashFunction, int tableSize) {
+        if (!isPrime(tableSize)) {
+            throw new IllegalArgumentException("Maglev table size must be prime: " + tableSize);
+        }
+        this.hashFunction = hashFunction;
+        this.tableSize = tableSize;
+    }
+
+    @Override
+    public synchronized void addNode(String node) {
+        if (members.add(node)) {
+            table = build();
+            logger.info("Node added: " + node);
+        }
+    }
+
+    @Override
+    public synchronized void removeNode(String node) {
+        if (members.remove(node)) {
+            table = build();
+            logger.info("Node removed: " + node);
+        }
+    }
+
+    @Override
+    public String getNode(String key) {
+        Table current = table;
+        if (current.nodes.length == 0) {
+            logger.warning("No nodes, cannot assign key: " + key);
+            return null;
+        }
+        // Multiply-shift maps the high 32 bits onto [0, tableSize) without a division
+        long hash = hashFunction.hash(key);
+        int slot = (int) (((hash >>> 32) * tableSize) >>> 32);
+        return current.nodes[current.entries[slot]];
+    }
+
+    private Table build() {
+        String[] nodes = members.toArray(new String[0]);
+        int n = nodes.length;
+        if (n == 0) return Table.EMPTY;
+
+        long[] offsets = new long[n];
+        long[] skips = new long[n];
+        for (int i = 0; i < n; i++) {
+            long hash = hashFunction.hash(nodes[i]);
+            offsets[i] = Long.remainderUnsigned(hash, tableSize);
+            skips[i] = Long.remainderUnsigned(hash >>> 32 | hash << 32, tableSize - 1) + 1;
+        }
+
+        int[] entries = new int[tableSize];
+        Arrays.fill(entries, -1);
+        long[] next = new long[n];
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                long candidate = (offsets[i] + next[i] * skips[i]) % tableSize;
+                while (entries[(int) candidate] >= 0) {
+                    next[i]++;
+                    candidate = (offsets[i] + next[i] * skips[i]) % tableSize;
+                }
+                entries[(int) candidate] = i;
+                next[i]++;
+                if (++filled == tableSize) {
+                    return new Table(entries, nodes);
+                }
+            }
+        }
+    }
+
+    private static boolean isPrime(int n) {
+        if (n < 2) return false;
+        for (int i = 2; (long) i * i <= n; i++) {
+            if (n % i == 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        Table current = table;
+        return 32 + 4L * current.entries.length + 4L * current.nodes.length;
+    }
+
+    private static final class Table {
+        static final Table EMPTY = new Table(new int[0], new String[0]);
+
+        final int[] entries;
+        final String[] nodes;
+
+        Table(int[] entries, String[] nodes) {
+            this.entries = entries;
+            this.nodes = nodes;
+        }
+    }
+}
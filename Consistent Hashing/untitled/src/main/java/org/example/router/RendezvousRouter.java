@@ -0,0 +1,120 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Rendezvous / highest-random-weight hashing: every node scores the key and the highest score wins. There are no
+ * virtual nodes, membership changes move exactly the keys of the node that came or went, and the state is two
+ * primitive-friendly arrays. The cost is O(n) per lookup, which is cheap for small clusters.
+ * <p>
+ * The scoring loop only reads a {@code long[]} and does multiply/xor/shift work with a branch-free max, which
+ * the JIT unrolls well; it is the same shape an explicit vector implementation would take.
+ */
+public class RendezvousRouter implements KeyRouter {
+    private static final Logger logger = Logger.getLogger(RendezvousRouter.class.getName());
+    private final HashFunction hashFunction;
+    private volatile Members members = Members.EMPTY;
+
+    public RendezvousRouter(HashFunction hashFunction) {
+        this.hashFunction = hashFunction;
+    }
+
+    @Override
+    public synchronized void addNode(String node) {
+        Members current = members;
+        if (Arrays.asList(current.nodes).contains(node)) return;
+        String[] nodes = Arrays.copyOf(current.nodes, current.nodes.length + 1);
+        long[] seeds = Arrays.copyOf(current.seeds, current.seeds.length + 1);
+        nodes[current.nodes.length] = node;
+        seeds[current.seeds.length] = hashFunction.hash(node);
+        members = new Members(nodes, seeds);
+        logger.info("Node added: " + node);
+    }
+
+    @Override
+    public synchronized void removeNode(String node) {
+        Members current = members;
+        int index = Arrays.asList(current.nodes).indexOf(node);
+        if (index < 0) return;
+        String[] nodes = new String[current.nodes.length - 1];
+        long[] seeds = new long[current.seeds.length - 1];
+        System.arraycopy(current.nodes, 0, nodes, 0, index);
+        System.arraycopy(current.nodes, index + 1, nodes, index, nodes.length - index);
+        System.arraycopy(current.seeds, 0, seeds, 0, index);
+        System.arraycopy(current.seeds, index + 1, seeds, index, seeds.length - index);
+        members = new Members(nodes, seeds);
+        logger.info("Node removed: " + node);
+    }
+
+    @Override
+    public String getNode(String key) {
+        Members current = members;
+        if (current.nodes.length == 0) {
+            logger.warning("No nodes, cannot assign key: " + key);
+            return null;
+        }
+        return current.nodes[highestScore(hashFunction.hash(key), current.seeds, current.seeds.length)];
+    }
+
+    static int highestScore(long keyHash, long[] seeds, int count) {
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            long score = score(keyHash, seeds[i]);
+            boolean higher = score > bestScore;
+            best = higher ? i : best;
+            bestScore = higher ? score : bestScore;
+        }
+        return best;
+    }
+
+    /**
+     * Weighted HRW (Schindelhauer and Schomaker): the score is {@code -w / ln(u)} with {@code u} uniform in (0, 1)
+     * drawn from the same pairwise hash, so an entry of weight w wins a share of keys proportional to w.
+     */
+    static int highestWeightedScore(long keyHash, long[] seeds, double[] weights, int count) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            // Top 53 bits plus half an ulp, so u is never 0 or 1
+            double u = ((score(keyHash, seeds[i]) >>> 11) + 0.5) * 0x1.0p-53;
+            double weighted = -weights[i] / Math.log(u);
+            boolean higher = weighted > bestScore;
+            best = higher ? i : best;
+            bestScore = higher ? weighted : bestScore;
+        }
+        return best;
+    }
+
+    // Murmur3 finalizer over key ^ node, so every (key, node) pair gets an independent pseudo-random score
+    static long score(long keyHash, long seed) {
+        long k = keyHash ^ seed;
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        Members current = members;
+        return 48 + 12L * current.nodes.length;
+    }
+
+    private static final class Members {
+        static final Members EMPTY = new Members(new String[0], new long[0]);
+
+        final String[] nodes;
+        final long[] seeds;
+
+        Members(String[] nodes, long[] seeds) {
+            this.nodes = nodes;
+            this.seeds = seeds;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Skeleton-based rendezvous hashing for hundreds of nodes. Nodes are spread over a fixed set of virtual clusters
+ * (each node joins the cluster that scores highest for its name), and a lookup runs HRW twice: once over the
+ * clusters, weighted by their member counts since clusters end up unevenly sized, then over the members of the
+ * winning cluster, so every node still gets an equal share. With about sqrt(n) clusters that is O(sqrt n) scores
+ * per key instead of O(n).
+ * <p>
+ * The weighting costs movement: a join moves about 2/n of the keys rather than the ideal 1/n. The new node takes its
+ * 1/n share, and its cluster, now one member heavier, also wins about 1/n of the keys from the other clusters, which
+ * spread over all of its members. Every moved key still ends up in the joining cluster, and a leave only moves keys
+ * that were in the leaving node's cluster. Unweighted clusters would move just 1/n, but members of small clusters
+ * would then get proportionally more keys.
+ */
+public class SkeletonRendezvousRouter implements KeyRouter {
+    private static final Logger logger = Logger.getLogger(SkeletonRendezvousRouter.class.getName());
+    private final HashFunction hashFunction;
+    private final long[] clusterSeeds;
+    private final List<List<String>> clusters;
+    private volatile Skeleton skeleton = Skeleton.EMPTY;
+
+    // clusterCount should be around sqrt of the expected cluster size and is fixed for the router's lifetime
+    public SkeletonRendezvousRouter(HashFunction hashFunction, int clusterCount) {
+        this.hashFunction = hashFunction;
+        this.clusterSeeds = new long[clusterCount];
+        this.clusters = new ArrayList<>(clusterCount);
+        for (int i = 0; i < clusterCount; i++) {
+            clusterSeeds[i] = hashFunction.hash("cluster#" + i);
+            clusters.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public synchronized void addNode(String node) {
+        List<String> cluster = clusters.get(clusterOf(node));
+        if (cluster.contains(node)) return;
+        cluster.add(node);
+        skeleton = build();
+        logger.info("Node added: " + node);
+    }
+
+    @Override
+    public synchronized void removeNode(String node) {
+        if (clusters.get(clusterOf(node)).remove(node)) {
+            skeleton = build();
+            logger.info("Node removed: " + node);
+        }
+    }
+
+    int clusterOf(String node) {
+        return RendezvousRouter.highestScore(hashFunction.hash(node), clusterSeeds, clusterSeeds.length);
+    }
+
+    @Override
+    public String getNode(String key) {
+        Skeleton current = skeleton;
+        if (current.seeds.length == 0) {
+            logger.warning("No nodes, cannot assign key: " + key);
+            return null;
+        }
+        long hash = hashFunction.hash(key);
+        int cluster = RendezvousRouter.highestWeightedScore(hash, current.seeds, current.weights, current.seeds.length);
+        long[] memberSeeds = current.memberSeeds[cluster];
+        return current.members[cluster][RendezvousRouter.highestScore(hash, memberSeeds, memberSeeds.length)];
+    }
+
+    // Only non-empty clusters take part, so an empty cluster never wins a key
+    private Skeleton build() {
+        List<Integer> live = new ArrayList<>();
+        for (int i = 0; i < clusters.size(); i++) {
+            if (!clusters.get(i).isEmpty()) live.add(i);
+        }
+        long[] seeds = new long[live.size()];
+        double[] weights = new double[live.size()];
+        String[][] members = new String[live.size()][];
+        long[][] memberSeeds = new long[live.size()][];
+        for (int i = 0; i < live.size(); i++) {
+            int id = live.get(i);
+            seeds[i] = clusterSeeds[id];
+            members[i] = clusters.get(id).toArray(new String[0]);
+            weights[i] = members[i].length;
+            memberSeeds[i] = new long[members[i].length];
+            for (int j = 0; j < members[i].length; j++) {
+                memberSeeds[i][j] = hashFunction.hash(members[i][j]);
+            }
+        }
+        return new Skeleton(seeds, weights, members, memberSeeds);
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        Skeleton current = skeleton;
+        long bytes = 64 + 16L * current.seeds.length;
+        for (String[] members : current.members) {
+            bytes += 48 + 12L * members.length;
+        }
+        return bytes;
+    }
+
+    private static final class Skeleton {
+        static final Skeleton EMPTY = new Skeleton(new long[0], new double[0], new String[0][], new long[0][]);
+
+        final long[] seeds;
+        // Member count per cluster
+        final double[] weights;
+        final String[][] members;
+        final long[][] memberSeeds;
+
+        Skeleton(long[] seeds, double[] weights, String[][] members, long[][] memberSeeds) {
+            this.seeds = seeds;
+            this.weights = weights;
+            this.members = members;
+            this.memberSeeds = memberSeeds;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class BatchRouterTest {
+    // Several times the split threshold, so the batch is resolved by parallel chunks
+    private static final int KEYS = 6 * BatchRouter.SPLIT_THRESHOLD + 123;
+
+    @Test
+    void batchesAboveTheSplitThresholdMatchGetNode() {
+        ConsistentHashing ring = ring(0);
+        List<String> keys = keys();
+
+        assertRoutedLikeGetNode(ring, keys, ring.routeAll(keys));
+        assertRoutedLikeGetNode(ring, keys, ring.routeAll(new LinkedList<>(keys)));
+    }
+
+    @Test
+    void boundedLoadBatchesFollowTheOverflowPlacement() {
+        ConsistentHashing ring = ring(1.1);
+        List<String> keys = keys();
+        // Only half the keys are placed, so the batch mixes overflowed, placed and never-added keys
+        for (int k = 0; k < KEYS; k += 2) ring.addKey(keys.get(k));
+
+        assertRoutedLikeGetNode(ring, keys, ring.routeAll(keys));
+    }
+
+    @Test
+    void hashBatchesMatchGetNode() {
+        for (double capacityFactor : new double[] {0, 1.1}) {
+            ConsistentHashing ring = ring(capacityFactor);
+            List<String> keys = keys();
+            if (capacityFactor > 0) keys.forEach(ring::addKey);
+            Map<Long, String> keyByHash = new HashMap<>();
+            long[] hashes = new long[KEYS];
+            for (int k = 0; k < KEYS; k++) {
+                hashes[k] = HashFunction.murmur3().hash(keys.get(k));
+                keyByHash.put(hashes[k], keys.get(k));
+            }
+
+            int routed = 0;
+            for (Map.Entry<String, long[]> group : ring.routeAll(hashes).entrySet()) {
+                for (long hash : group.getValue()) {
+                    String key = keyByHash.get(hash);
+                    assertNotNull(key);
+                    assertEquals(ring.getNode(key), group.getKey(), key);
+                    routed++;
+                }
+            }
+            assertEquals(KEYS, routed);
+        }
+    }
+
+    private static void assertRoutedLikeGetNode(ConsistentHashing ring, List<String> keys,
+                                                Map<String, List<String>> routed) {
+        int count = 0;
+        for (Map.Entry<String, List<String>> group : routed.entrySet()) {
+            for (String key : group.getValue()) {
+                assertEquals(ring.getNode(key), group.getKey(), key);
+                count++;
+            }
+        }
+        assertEquals(keys.size(), count);
+    }
+
+    private static ConsistentHashing ring(double capacityFactor) {
+        ConsistentHashing ring = new ConsistentHashing(100, HashFunction.murmur3(), capacityFactor);
+        for (int n = 0; n < 12; n++) ring.addNode("node-" + n);
+        return ring;
+    }
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>(KEYS);
+        for (int k = 0; k < KEYS; k++) keys.add("key-" + k);
+        return keys;
+    }
+}
@@ -0,0 +1,182 @@
+package org.example;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashingTest {
+
+    @Test
+    void addingAKeyAgainDoesNotCountItTwice() {
+        for (double capacityFactor : new double[] {0, 1.25}) {
+            ConsistentHashing ring = new ConsistentHashing(100, HashFunction.murmur3(), capacityFactor);
+            for (int n = 0; n < 5; n++) ring.addNode("node-" + n);
+            for (int round = 0; round < 6; round++) {
+                for (int k = 0; k < 1000; k++) {
+                    String first = ring.addKey("key-" + k);
+                    assertEquals(first, ring.addKey("key-" + k));
+                }
+            }
+            int total = ring.stats().keysPerNode().values().stream().mapToInt(Integer::intValue).sum();
+            assertEquals(1000, total);
+        }
+    }
+
+    @Test
+    void statsCountDistinctKeys() {
+        ConsistentHashing ring = new ConsistentHashing(100, HashFunction.murmur3());
+        for (int n = 0; n < 4; n++) ring.addNode("node-" + n);
+        for (int round = 0; round < 3; round++) {
+            for (int k = 0; k < 2000; k++) ring.addKey("key-" + k);
+        }
+        RingStats stats = ring.stats();
+        assertEquals(2000, stats.keysPerNode().values().stream().mapToInt(Integer::intValue).sum());
+        // 2000 keys over 4 nodes with 100 vnodes each: a few percent of spread, not a multiple of the mean
+        assertTrue(stats.coefficientOfVariation() < 0.3, "cv " + stats.coefficientOfVariation());
+    }
+
+    @Test
+    void lookupsFollowBoundedLoadPlacement() {
+        ConsistentHashing ring = new ConsistentHashing(50, HashFunction.murmur3(), 1.1);
+        for (int n = 0; n < 8; n++) ring.addNode("node-" + n);
+        List<String> keys = new ArrayList<>();
+        for (int k = 0; k < 5000; k++) keys.add("key-" + k);
+        assertPlacementHonoured(ring, keys);
+        Map<String, Integer> perNode = ring.stats().keysPerNode();
+        int max = perNode.values().stream().mapToInt(Integer::intValue).max().orElseThrow();
+        assertTrue(max <= Math.ceil(1.1 * keys.size() / perNode.size()), "max load " + max);
+
+        // Re-placed keys of a leaving node and ranges handed to a joining one must still be found
+        ring.removeNode("node-3");
+        ring.addNode("node-8");
+        assertPlacementHonoured(ring, keys);
+        assertEquals(keys.size(), ring.stats().keysPerNode().values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void incrementalMembershipChangesMatchARebuiltRing() {
+        ConsistentHashing ring = new ConsistentHashing(64, HashFunction.murmur3());
+        Map<String, Double> members = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (int k = 0; k < 3000; k++) keys.add("key-" + k);
+        Random random = new Random(11);
+        int nextNode = 0;
+        for (int step = 0; step < 60; step++) {
+            int operation = members.size() < 3 ? 0 : random.nextInt(4);
+            if (operation == 0) {
+                String node = "node-" + nextNode++;
+                double weight = 0.5 + random.nextInt(4) * 0.5;
+                ring.addNode(node, weight);
+                members.put(node, weight);
+            } else if (operation == 1) {
+                String node = pick(members, random);
+                ring.removeNode(node);
+                members.remove(node);
+            } else if (operation == 2) {
+                String node = pick(members, random);
+                double weight = 0.5 + random.nextInt(4) * 0.5;
+                ring.addNode(node, weight);
+                members.put(node, weight);
+            } else {
+                // One batch that re-weights one node, adds another and removes a third
+                String reweighted = pick(members, random);
+                String removed = pick(members, random);
+                String added = "node-" + nextNode++;
+                Map<String, Double> weights = new HashMap<>();
+                weights.put(reweighted, 2.5);
+                weights.put(added, 1.0);
+                if (removed.equals(reweighted)) weights.remove(reweighted);
+                ring.updateMembership(weights, Set.of(removed));
+                members.putAll(weights);
+                members.remove(removed);
+            }
+            if (step == 5) {
+                for (String key : keys) ring.addKey(key);
+            }
+
+            ConsistentHashing rebuilt = new ConsistentHashing(64, HashFunction.murmur3());
+            members.forEach(rebuilt::addNode);
+            for (String key : keys) {
+                assertEquals(rebuilt.getNode(key), ring.getNode(key), "step " + step + ", " + key);
+                assertEquals(rebuilt.getNodes(key, 3), ring.getNodes(key, 3), "step " + step + ", " + key);
+            }
+            if (step >= 5) {
+                // Keys moved by range migrations end up where adding them to the rebuilt ring puts them
+                for (String key : keys) rebuilt.addKey(key);
+                assertEquals(rebuilt.stats().keysPerNode(), ring.stats().keysPerNode(), "step " + step);
+            }
+            members.forEach((node, weight) -> assertEquals(weight, ring.getWeight(node)));
+        }
+    }
+
+    @Test
+    void readersOnlyEverSeePublishedMembers() throws InterruptedException {
+        ConsistentHashing ring = new ConsistentHashing(64, HashFunction.murmur3());
+        for (int n = 0; n < 4; n++) ring.addNode("stable-" + n);
+        Set<String> everAdded = ConcurrentHashMap.newKeySet();
+        for (int n = 0; n < 4; n++) everAdded.add("stable-" + n);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Throwable> failures = new ArrayList<>();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    int k = 0;
+                    while (running.get()) {
+                        String key = "key-" + (k++ % 10_000);
+                        String node = ring.getNode(key);
+                        assertNotNull(node, key);
+                        assertTrue(everAdded.contains(node), node);
+                        List<String> replicas = ring.getNodes(key, 3);
+                        assertEquals(3, Set.copyOf(replicas).size(), key);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        // Nodes are registered as seen before they join, so a reader can never find one it was not told about
+        for (int round = 0; round < 200; round++) {
+            String node = "transient-" + round;
+            everAdded.add(node);
+            ring.addNode(node, 0.5 + (round % 3) * 0.5);
+            if (round > 0) ring.removeNode("transient-" + (round - 1));
+        }
+        running.set(false);
+        for (Thread reader : readers) reader.join();
+        assertEquals(List.of(), failures);
+    }
+
+    private static String pick(Map<String, Double> members, Random random) {
+        List<String> nodes = new ArrayList<>(members.keySet());
+        nodes.sort(null);
+        return nodes.get(random.nextInt(nodes.size()));
+    }
+
+    private static void assertPlacementHonoured(ConsistentHashing ring, List<String> keys) {
+        for (String key : keys) {
+            String placed = ring.addKey(key);
+            assertEquals(placed, ring.getNode(key), key);
+        }
+        for (Map.Entry<String, List<String>> group : ring.routeAll(keys).entrySet()) {
+            for (String key : group.getValue()) {
+                assertEquals(ring.getNode(key), group.getKey(), key);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class KeyHashIndexTest {
+
+    @Test
+    void behavesAsASetOfHashes() {
+        KeyHashIndex index = new KeyHashIndex();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Small range so that many hashes repeat, both in the sorted part and in the tail
+            long hash = random.nextInt(20_000) - 10_000L;
+            assertEquals(expected.add(hash), index.add(hash));
+        }
+        assertEquals(expected.size(), index.size());
+        for (long hash = -10_100; hash < 10_100; hash++) {
+            assertEquals(expected.contains(hash), index.contains(hash));
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), index.toArray());
+    }
+
+    @Test
+    void extractRemovesExactlyTheHashesInsideEachRange() {
+        KeyHashIndex index = new KeyHashIndex();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long hash = random.nextLong();
+            index.add(hash);
+            expected.add(hash);
+        }
+        RangeMove inner = new RangeMove(-1_000_000_000_000L, 1_000_000_000_000L, "a", "b", 0);
+        // Wraps past Long.MAX_VALUE
+        RangeMove wrapping = new RangeMove(Long.MAX_VALUE - 1_000_000_000_000_000L,
+                Long.MIN_VALUE + 1_000_000_000_000_000L, "a", "c", 0);
+
+        long[][] extracted = index.extract(List.of(inner, wrapping));
+
+        long[] insideInner = expected.subSet(inner.startExclusive(), false, inner.endInclusive(), true).stream()
+                .mapToLong(Long::longValue).toArray();
+        assertArrayEquals(insideInner, extracted[0]);
+        assertEquals(expected.tailSet(wrapping.startExclusive(), false).size()
+                + expected.headSet(wrapping.endInclusive(), true).size(), extracted[1].length);
+        for (long[] range : extracted) {
+            for (long hash : range) {
+                assertFalse(index.contains(hash));
+                expected.remove(hash);
+            }
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), index.toArray());
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.hash;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HashFunctionTest {
+    // Inputs on both sides of the 16- and 32-byte block sizes, plus non-ASCII chars and a surrogate pair
+    private static final String[] INPUTS = {
+            "", "a", "ab", "abc", "node-1#42", "The quick brown fox", "The quick brown fox jumps over the lazy dog",
+            "cl\u00e9", "\u65e5\u672c\u8a9e\u30ad\u30fc", "emoji \ud83d\ude00 key"
+    };
+
+    // Seed 0 reference outputs; for Murmur3 x64_128 the first 64 bits, h1, read little-endian
+    @Test
+    void murmur3MatchesTheReferenceVectors() {
+        HashFunction murmur3 = HashFunction.murmur3();
+        assertEquals(0L, murmur3.hash(utf8("")));
+        assertEquals(0x85555565f6597889L, murmur3.hash(utf8("a")));
+        assertEquals(0xe271865701f54561L, murmur3.hash(utf8("foo")));
+        assertEquals(0xe34bbc7bbc071b6cL, murmur3.hash(utf8("The quick brown fox jumps over the lazy dog")));
+    }
+
+    @Test
+    void xxHash64MatchesTheReferenceVectors() {
+        HashFunction xxHash64 = HashFunction.xxHash64();
+        assertEquals(0xef46db3751d8e999L, xxHash64.hash(utf8("")));
+        assertEquals(0xd24ec4f1a98c6e5bL, xxHash64.hash(utf8("a")));
+        assertEquals(0x44bc2cf5ad770999L, xxHash64.hash(utf8("abc")));
+        assertEquals(0xfbcea83c8a378bf1L, xxHash64.hash(utf8("Nobody inspects the spammish repetition")));
+    }
+
+    @Test
+    void charSequencesHashAsTheirUtf16LittleEndianCodeUnits() {
+        for (HashFunction hash : new HashFunction[] {HashFunction.murmur3(), HashFunction.xxHash64()}) {
+            for (String input : INPUTS) {
+                assertEquals(hash.hash(input.getBytes(StandardCharsets.UTF_16LE)), hash.hash(input), input);
+                assertEquals(hash.hash(input), hash.hash(new StringBuilder(input)), input);
+            }
+        }
+    }
+
+    @Test
+    void digestHashesEncodeCharSequencesAsUtf8() {
+        for (HashFunction hash : new HashFunction[] {HashFunction.md5(), HashFunction.sha256()}) {
+            for (String input : INPUTS) {
+                assertEquals(hash.hash(utf8(input)), hash.hash(input), input);
+            }
+        }
+    }
+
+    @Test
+    void offsetAndLengthHashOnlyTheSlice() {
+        byte[] padded = utf8("xxThe quick brown fox jumps over the lazy dogyy");
+        HashFunction murmur3 = HashFunction.murmur3();
+        assertEquals(0xe34bbc7bbc071b6cL, murmur3.hash(padded, 2, padded.length - 4));
+    }
+
+    private static byte[] utf8(String input) {
+        return input.getBytes(StandardCharsets.UTF_8);
+    }
+}
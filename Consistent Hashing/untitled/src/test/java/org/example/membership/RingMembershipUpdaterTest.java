@@ -0,0 +1,43 @@
+package org.example.membership;
+
+import org.example.ConsistentHashing;
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RingMembershipUpdaterTest {
+
+    @Test
+    void suspectAndRecoveryKeepTheWeightTheNodeHadOnTheRing() {
+        ConsistentHashing ring = new ConsistentHashing(100, HashFunction.murmur3());
+        ring.addNode("big", 2.0);
+        ring.addNode("small");
+        RingMembershipUpdater updater = new RingMembershipUpdater(ring, 0.25);
+
+        updater.onMembershipChange("observer", Map.of("big", MemberStatus.SUSPECT));
+        assertEquals(0.5, ring.getWeight("big"));
+
+        updater.onMembershipChange("observer", Map.of("big", MemberStatus.ALIVE));
+        assertEquals(2.0, ring.getWeight("big"));
+
+        updater.onMembershipChange("observer", Map.of("big", MemberStatus.DEAD));
+        assertNull(ring.getWeight("big"));
+        updater.onMembershipChange("observer", Map.of("big", MemberStatus.ALIVE));
+        assertEquals(2.0, ring.getWeight("big"));
+    }
+
+    @Test
+    void registeredWeightWins() {
+        ConsistentHashing ring = new ConsistentHashing(100, HashFunction.murmur3());
+        ring.addNode("node", 2.0);
+        RingMembershipUpdater updater = new RingMembershipUpdater(ring);
+        updater.register("node", 3.0);
+
+        updater.onMembershipChange("observer", Map.of("node", MemberStatus.SUSPECT));
+        assertEquals(0.75, ring.getWeight("node"));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JumpHashRouterTest {
+    private static final int KEYS = 200_000;
+
+    @Test
+    void appendingABucketOnlyMovesAboutOneNthOfTheKeysAndAllToTheNewBucket() {
+        JumpHashRouter router = new JumpHashRouter(HashFunction.murmur3());
+        int nodes = 50;
+        for (int n = 0; n < nodes; n++) router.addNode("node-" + n);
+        String[] before = route(router);
+
+        router.addNode("node-" + nodes);
+        String[] after = route(router);
+        int moved = 0;
+        for (int k = 0; k < KEYS; k++) {
+            if (before[k].equals(after[k])) continue;
+            moved++;
+            assertEquals("node-" + nodes, after[k], "key-" + k);
+        }
+        // Expected 1/(n + 1) of the keys, about 3900; 5% is well over ten standard deviations
+        double expected = (double) KEYS / (nodes + 1);
+        assertTrue(Math.abs(moved / expected - 1) < 0.05, "moved " + moved + ", expected " + expected);
+
+        // Removing the last bucket again restores the old placement
+        router.removeNode("node-" + nodes);
+        String[] restored = route(router);
+        for (int k = 0; k < KEYS; k++) {
+            assertEquals(before[k], restored[k], "key-" + k);
+        }
+    }
+
+    @Test
+    void bucketsGetEqualShares() {
+        int buckets = 37;
+        int[] counts = new int[buckets];
+        HashFunction hash = HashFunction.murmur3();
+        for (int k = 0; k < KEYS; k++) counts[JumpHashRouter.jump(hash.hash("key-" + k), buckets)]++;
+        for (int b = 0; b < buckets; b++) {
+            assertTrue(Math.abs(counts[b] * buckets / (double) KEYS - 1) < 0.05, "bucket " + b + ": " + counts[b]);
+        }
+    }
+
+    private static String[] route(KeyRouter router) {
+        String[] owners = new String[KEYS];
+        for (int k = 0; k < KEYS; k++) owners[k] = router.getNode("key-" + k);
+        return owners;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaglevRouterTest {
+    private static final int NODES = 100;
+    private static final int TABLE_SIZE = MaglevRouter.DEFAULT_TABLE_SIZE;
+
+    @Test
+    void defaultTableIsPrimeAndAtLeastAHundredSlotsPerNode() {
+        assertTrue(isPrime(TABLE_SIZE));
+        assertTrue(TABLE_SIZE >= 100 * NODES);
+        assertThrows(IllegalArgumentException.class, () -> new MaglevRouter(HashFunction.murmur3(), 65536));
+    }
+
+    @Test
+    void everyNodeOwnsItsShareOfSlotsWithinOne() {
+        MaglevRouter router = router();
+        Map<String, Integer> slots = new HashMap<>();
+        for (String owner : slotOwners(router)) slots.merge(owner, 1, Integer::sum);
+
+        // Nodes claim one free slot per round, so shares differ from M/n by less than one slot
+        assertEquals(NODES, slots.size());
+        double share = (double) TABLE_SIZE / NODES;
+        slots.forEach((node, count) -> assertTrue(Math.abs(count - share) < 1, node + ": " + count));
+    }
+
+    @Test
+    void removingANodeOnlyReassignsABoundedFractionOfOtherSlots() {
+        MaglevRouter router = router();
+        String[] before = slotOwners(router);
+        router.removeNode("node-42");
+        String[] after = slotOwners(router);
+
+        int disrupted = 0;
+        for (int slot = 0; slot < TABLE_SIZE; slot++) {
+            if (before[slot].equals("node-42")) {
+                assertNotEquals("node-42", after[slot]);
+            } else if (!before[slot].equals(after[slot])) {
+                disrupted++;
+            }
+        }
+        // Maglev trades a little extra movement for even shares, but less than the removed node's own 1/n
+        assertTrue(disrupted < TABLE_SIZE / NODES, "disrupted " + disrupted + " of " + TABLE_SIZE);
+    }
+
+    private static MaglevRouter router() {
+        MaglevRouter router = new MaglevRouter(new SlotHashFunction());
+        for (int n = 0; n < NODES; n++) router.addNode("node-" + n);
+        return router;
+    }
+
+    private static String[] slotOwners(MaglevRouter router) {
+        String[] owners = new String[TABLE_SIZE];
+        for (int slot = 0; slot < TABLE_SIZE; slot++) owners[slot] = router.getNode("slot-" + slot);
+        return owners;
+    }
+
+    private static boolean isPrime(int n) {
+        for (int i = 2; (long) i * i <= n; i++) {
+            if (n % i == 0) return false;
+        }
+        return n > 1;
+    }
+
+    // Sends "slot-i" to table slot i through the router's multiply-shift, and hashes node names with Murmur3
+    private static final class SlotHashFunction implements HashFunction {
+        private final HashFunction nodes = HashFunction.murmur3();
+
+        @Override
+        public long hash(byte[] data, int offset, int length) {
+            return nodes.hash(data, offset, length);
+        }
+
+        @Override
+        public long hash(CharSequence data) {
+            String key = data.toString();
+            if (!key.startsWith("slot-")) return nodes.hash(key);
+            long slot = Long.parseLong(key.substring(5));
+            long high = ((slot << 32) + TABLE_SIZE - 1) / TABLE_SIZE;
+            return high << 32;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RendezvousRouterTest {
+    private static final int KEYS = 200_000;
+
+    @Test
+    void weightedScoreGivesEachEntryAShareProportionalToItsWeight() {
+        HashFunction hash = HashFunction.murmur3();
+        double[] weights = {1, 2, 3, 4};
+        long[] seeds = new long[weights.length];
+        for (int i = 0; i < seeds.length; i++) seeds[i] = hash.hash("entry-" + i);
+        int[] wins = new int[weights.length];
+        for (int k = 0; k < KEYS; k++) {
+            wins[RendezvousRouter.highestWeightedScore(hash.hash("key-" + k), seeds, weights, seeds.length)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double expected = KEYS * weights[i] / 10;
+            assertTrue(Math.abs(wins[i] / expected - 1) < 0.03, "entry " + i + ": " + wins[i] + " of " + expected);
+        }
+    }
+
+    @Test
+    void leaveOnlyMovesTheLeavingNodesKeysAndJoinOnlyMovesKeysToTheNewNode() {
+        RendezvousRouter router = new RendezvousRouter(HashFunction.murmur3());
+        int nodes = 20;
+        for (int n = 0; n < nodes; n++) router.addNode("node-" + n);
+        String[] before = route(router);
+
+        router.removeNode("node-3");
+        String[] afterLeave = route(router);
+        int moved = 0;
+        for (int k = 0; k < KEYS; k++) {
+            if (before[k].equals(afterLeave[k])) continue;
+            moved++;
+            assertEquals("node-3", before[k], "key-" + k);
+        }
+        assertTrue(Math.abs((double) moved / KEYS * nodes - 1) < 0.05, "moved " + moved);
+
+        router.addNode("node-20");
+        String[] afterJoin = route(router);
+        moved = 0;
+        for (int k = 0; k < KEYS; k++) {
+            if (afterLeave[k].equals(afterJoin[k])) continue;
+            moved++;
+            assertEquals("node-20", afterJoin[k], "key-" + k);
+        }
+        assertTrue(Math.abs((double) moved / KEYS * nodes - 1) < 0.05, "moved " + moved);
+    }
+
+    private static String[] route(KeyRouter router) {
+        String[] owners = new String[KEYS];
+        for (int k = 0; k < KEYS; k++) owners[k] = router.getNode("key-" + k);
+        return owners;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.router;
+
+import org.example.hash.HashFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkeletonRendezvousRouterTest {
+    private static final int NODES = 500;
+    private static final int KEYS = 1_000_000;
+
+    @Test
+    void nodesInSmallAndLargeClustersGetEqualShares() {
+        SkeletonRendezvousRouter router = new SkeletonRendezvousRouter(HashFunction.murmur3(), 22);
+        for (int n = 0; n < NODES; n++) router.addNode("node-" + n);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int k = 0; k < KEYS; k++) counts.merge(router.getNode("key-" + k), 1, Integer::sum);
+
+        assertEquals(NODES, counts.size());
+        double mean = (double) KEYS / NODES;
+        // Binomial noise alone is about 2.2% per node at 2000 keys; a cluster-size bias shows up as +-20%
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            double deviation = Math.abs(entry.getValue() / mean - 1);
+            assertTrue(deviation < 0.12, entry.getKey() + " deviates by " + deviation);
+        }
+    }
+
+    @Test
+    void joinMovesAboutTwiceTheIdealShareAndOnlyIntoTheJoiningCluster() {
+        SkeletonRendezvousRouter router = new SkeletonRendezvousRouter(HashFunction.murmur3(), 22);
+        for (int n = 0; n < NODES; n++) router.addNode("node-" + n);
+        int keys = 200_000;
+        String[] before = route(router, keys);
+
+        router.addNode("joining");
+        String[] afterJoin = route(router, keys);
+        int joiningCluster = router.clusterOf("joining");
+        int moved = 0;
+        for (int k = 0; k < keys; k++) {
+            if (before[k].equals(afterJoin[k])) continue;
+            moved++;
+            assertEquals(joiningCluster, router.clusterOf(afterJoin[k]), "key-" + k + " moved to another cluster");
+        }
+        double ideal = 1.0 / (NODES + 1);
+        double fraction = (double) moved / keys;
+        assertTrue(fraction > 0.8 * ideal && fraction < 2.5 * ideal, "moved " + fraction + ", ideal " + ideal);
+
+        // Leaving again restores the old placement, so it moves back exactly those keys
+        router.removeNode("joining");
+        String[] afterLeave = route(router, keys);
+        for (int k = 0; k < keys; k++) {
+            assertEquals(before[k], afterLeave[k], "key-" + k);
+        }
+    }
+
+    @Test
+    void leaveOnlyMovesKeysOfTheLeavingCluster() {
+        SkeletonRendezvousRouter router = new SkeletonRendezvousRouter(HashFunction.murmur3(), 22);
+        for (int n = 0; n < NODES; n++) router.addNode("node-" + n);
+        int keys = 200_000;
+        String[] before = route(router, keys);
+
+        router.removeNode("node-7");
+        String[] after = route(router, keys);
+        int leavingCluster = router.clusterOf("node-7");
+        int moved = 0;
+        for (int k = 0; k < keys; k++) {
+            if (before[k].equals(after[k])) continue;
+            moved++;
+            assertEquals(leavingCluster, router.clusterOf(before[k]), "key-" + k + " moved from another cluster");
+        }
+        double ideal = 1.0 / NODES;
+        double fraction = (double) moved / keys;
+        assertTrue(fraction > 0.8 * ideal && fraction < 2.5 * ideal, "moved " + fraction + ", ideal " + ideal);
+        assertEquals(NODES - 1, new HashSet<>(Arrays.asList(after)).size());
+    }
+
+    private static String[] route(KeyRouter router, int keys) {
+        String[] owners = new String[keys];
+        for (int k = 0; k < keys; k++) owners[k] = router.getNode("key-" + k);
+        return owners;
+    }
+}
@@ -9,7 +9,19 @@ repositories {
     mavenCentral()
 }
 
+// Benchmarks live in their own source set so the main build never needs JMH on the classpath
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhVersion = "1.37"
+
 dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -17,4 +29,21 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Benchmarks are not run by the build, but compiling them there keeps API changes from silently breaking them
+tasks.check {
+    dependsOn("jmhClasses")
+}
+
+// ./gradlew jmh [-PjmhThreads=1,4,16,64]; JSON per run and summary.csv end up in build/reports/jmh
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the LRUCache JMH benchmarks for each thread count and writes a CSV summary."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.example.BenchmarkRunner")
+    args(
+        layout.buildDirectory.dir("reports/jmh").get().asFile.path,
+        providers.gradleProperty("jmhThreads").getOrElse("1,4,16,64")
+    )
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs {@link LRUCacheBenchmark} once per thread count and merges the two benchmark modes into one row per
+ * workload, distribution, policy and thread count: throughput, p99 latency, allocation rate and hit ratio. Raw JSON
+ * of every run and the merged {@code summary.csv} go to the output directory; {@code benchmarks/baseline.csv} is
+ * a checked-in copy of that CSV, with the machine it came from described next to it.
+ * <p>
+ * Arguments: output directory, then a comma-separated list of thread counts.
+ */
+public final class BenchmarkRunner {
+    private static final String CSV_HEADER =
+            "workload,distribution,policy,threads,ops_per_s,p99_ns,alloc_mb_per_s,alloc_bytes_per_op,hit_ratio";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path outputDir = Path.of(args.length > 0 ? args[0] : "build/reports/jmh");
+        int[] threadCounts = Arrays.stream((args.length > 1 ? args[1] : "1,4,16,64").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        Files.createDirectories(outputDir);
+
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (int threads : threadCounts) {
+            for (RunResult result : run("throughput", threads, outputDir)) {
+                Row row = rows.computeIfAbsent(key(result.getParams()), ignored -> new Row());
+                row.opsPerSecond = result.getPrimaryResult().getScore();
+                row.allocMbPerSecond = secondary(result, "gc.alloc.rate");
+                row.allocBytesPerOp = secondary(result, "gc.alloc.rate.norm");
+                double hits = secondary(result, "hits");
+                double misses = secondary(result, "misses");
+                row.hitRatio = hits + misses == 0 ? Double.NaN : hits / (hits + misses);
+            }
+            for (RunResult result : run("latency", threads, outputDir)) {
+                Row row = rows.computeIfAbsent(key(result.getParams()), ignored -> new Row());
+                row.p99Nanos = result.getPrimaryResult().getStatistics().getPercentile(99);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        rows.forEach((key, row) -> lines.add(String.format(Locale.ROOT, "%s,%.0f,%.0f,%.1f,%.1f,%.4f", key,
+                row.opsPerSecond, row.p99Nanos, row.allocMbPerSecond, row.allocBytesPerOp, row.hitRatio)));
+        Path summary = outputDir.resolve("summary.csv");
+        Files.write(summary, lines);
+        lines.forEach(System.out::println);
+        System.out.println("Summary written to " + summary);
+    }
+
+    private static Iterable<RunResult> run(String benchmark, int threads, Path outputDir) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include("\\." + LRUCacheBenchmark.class.getSimpleName() + "\\." + benchmark + "$")
+                .threads(threads)
+                .forks(1)
+                .jvmArgs("-Xms2g", "-Xmx2g")
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(outputDir.resolve(benchmark + "-t" + threads + ".json").toString());
+        // Allocation is only profiled once; the latency run would report the same bytes per operation
+        if (benchmark.equals("throughput")) {
+            options.addProfiler(GCProfiler.class);
+        }
+        return new Runner(options.build()).run();
+    }
+
+    private static String key(BenchmarkParams params) {
+        return String.join(",", params.getParam("workload"), params.getParam("distribution"),
+                params.getParam("policy"), String.valueOf(params.getThreads()));
+    }
+
+    // Secondary result labels carry a prefix in some JMH versions, so they are matched by suffix
+    private static double secondary(RunResult result, String label) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().equals(label) || entry.getKey().endsWith("\u00b7" + label)) {
+                return entry.getValue().getScore();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static final class Row {
+        double opsPerSecond = Double.NaN;
+        double p99Nanos = Double.NaN;
+        double allocMbPerSecond = Double.NaN;
+        double allocBytesPerOp = Double.NaN;
+        double hitRatio = Double.NaN;
+    }
+}
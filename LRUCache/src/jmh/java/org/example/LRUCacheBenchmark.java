@@ -0,0 +1,151 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Gets and puts against a full {@link LRUCache} of 64K entries, with keys drawn from four times as many. The
+ * workload sets the share of writes (10%, 50% or 90%), the distribution where the keys come from: Zipfian ranks,
+ * uniform, or a sequential scan that every thread starts at a different point. Each thread replays a precomputed
+ * stream of operations, so the generators and key boxing stay out of the measurement.
+ * <p>
+ * {@link #throughput} gives operations per second and counts hits and misses of the reads; {@link #latency} runs the
+ * same operations in sample mode for the latency percentiles. Thread counts are set by {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+public class LRUCacheBenchmark {
+    private static final int CAPACITY = 1 << 16;
+    private static final int KEY_SPACE = 4 * CAPACITY;
+    private static final int STREAM_LENGTH = 1 << 18;
+    private static final String VALUE = "value";
+
+    @Param({"read", "mixed", "write"})
+    public String workload;
+
+    @Param({"zipfian", "uniform", "scan"})
+    public String distribution;
+
+    @Param({"lru", "windowTinyLfu"})
+    public String policy;
+
+    @Param({"16"})
+    public int concurrencyLevel;
+
+    LRUCache<Integer, String> cache;
+    Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = LRUCache.<Integer, String>builder()
+                .capacity(CAPACITY)
+                .concurrencyLevel(concurrencyLevel)
+                .evictionPolicy(policyFactory())
+                .build();
+        keys = new Integer[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) keys[i] = i;
+        // Start full, so the first iterations do not measure a cold cache
+        for (int i = 0; i < CAPACITY; i++) cache.put(keys[i], VALUE);
+    }
+
+    private LongFunction<EvictionPolicy<Integer, String>> policyFactory() {
+        return switch (policy) {
+            case "lru" -> EvictionPolicy::lru;
+            case "windowTinyLfu" -> EvictionPolicy::windowTinyLfu;
+            default -> throw new IllegalArgumentException("Unknown policy: " + policy);
+        };
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String throughput(OperationStream stream, HitCounters counters) {
+        int i = stream.advance();
+        Integer key = keys[stream.keyIndexes[i]];
+        if (stream.writes[i]) {
+            cache.put(key, VALUE);
+            return VALUE;
+        }
+        String value = cache.get(key);
+        if (value != null) counters.hits++;
+        else counters.misses++;
+        return value;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String latency(OperationStream stream) {
+        int i = stream.advance();
+        Integer key = keys[stream.keyIndexes[i]];
+        if (stream.writes[i]) {
+            cache.put(key, VALUE);
+            return VALUE;
+        }
+        return cache.get(key);
+    }
+
+    @State(Scope.Thread)
+    public static class OperationStream {
+        int[] keyIndexes;
+        boolean[] writes;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(LRUCacheBenchmark benchmark, ThreadParams threads) {
+            SplittableRandom random = new SplittableRandom(threads.getThreadIndex());
+            double writeShare = writeShare(benchmark.workload);
+            keyIndexes = new int[STREAM_LENGTH];
+            writes = new boolean[STREAM_LENGTH];
+            ZipfianGenerator zipfian = benchmark.distribution.equals("zipfian") ? new ZipfianGenerator(KEY_SPACE) : null;
+            int scanStart = (int) ((long) KEY_SPACE * threads.getThreadIndex() / threads.getThreadCount());
+            for (int i = 0; i < STREAM_LENGTH; i++) {
+                keyIndexes[i] = switch (benchmark.distribution) {
+                    case "zipfian" -> (int) zipfian.sample(random.nextDouble());
+                    case "uniform" -> random.nextInt(KEY_SPACE);
+                    case "scan" -> (scanStart + i) % KEY_SPACE;
+                    default -> throw new IllegalArgumentException("Unknown distribution: " + benchmark.distribution);
+                };
+                writes[i] = random.nextDouble() < writeShare;
+            }
+        }
+
+        int advance() {
+            return next++ & (STREAM_LENGTH - 1);
+        }
+
+        private static double writeShare(String workload) {
+            return switch (workload) {
+                case "read" -> 0.1;
+                case "mixed" -> 0.5;
+                case "write" -> 0.9;
+                default -> throw new IllegalArgumentException("Unknown workload: " + workload);
+            };
+        }
+    }
+
+    // Reported as secondary results of the throughput run; the hit ratio is hits / (hits + misses)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HitCounters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+}
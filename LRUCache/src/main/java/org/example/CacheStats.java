@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * Point-in-time view of an {@link LRUCache}'s counters returned by {@link LRUCache#stats()}.
+ * <p>
+ * Evictions count entries removed by the cache itself, for size or expiration, not explicit removals.
+ * {@code loadLatencyHistogram[i]} counts loads that took under 2^i ns.
+ */
+public record CacheStats(long hitCount,
+                         long missCount,
+                         long evictionCount,
+                         long evictionWeight,
+                         long loadSuccessCount,
+                         long loadFailureCount,
+                         long totalLoadNanos,
+                         long[] loadLatencyHistogram) {
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public double averageLoadNanos() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadNanos / loads;
+    }
+
+    // Upper bound in ns of the bucket that holds the given quantile of loads, e.g. 0.99 for p99
+    public long loadLatencyPercentile(double quantile) {
+        long target = (long) Math.ceil(quantile * (loadSuccessCount + loadFailureCount));
+        long seen = 0;
+        for (int i = 0; i < loadLatencyHistogram.length; i++) {
+            seen += loadLatencyHistogram[i];
+            if (seen >= target && seen > 0) return 1L << i;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d loads(ok/failed)=%d/%d "
+                        + "load avg=%.2fms p99<%.2fms",
+                hitCount, missCount, hitRate(), evictionCount, loadSuccessCount, loadFailureCount,
+                averageLoadNanos() / 1e6, loadLatencyPercentile(0.99) / 1e6);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * CLOCK (second chance): a hit only sets the node's reference bit, with no pointer writes. Eviction sweeps from the
+ * oldest entry; a referenced entry has its bit cleared and goes back to the head, the first unreferenced one is the
+ * victim. The list order is insertion order plus second chances, which approximates LRU at a fraction of the cost
+ * of moving nodes on every hit.
+ */
+final class ClockPolicy<K, V> implements EvictionPolicy<K, V> {
+    private final DoubleLinkedList<K, V> clock = new DoubleLinkedList<>();
+
+    @Override
+    public void onInsert(Node<K, V> node) {
+        node.frequency = 0;
+        clock.addFirst(node);
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        node.frequency = 1;
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        if (clock.contains(node)) clock.remove(node);
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        Node<K, V> hand = clock.peekLast();
+        while (hand != null && hand.frequency != 0) {
+            hand.frequency = 0;
+            clock.moveToFront(hand);
+            hand = clock.peekLast();
+        }
+        if (hand != null) clock.remove(hand);
+        return hand;
+    }
+
+    // Approximate: the sweep order, ignoring which entries would get a second chance
+    @Override
+    public void forEachHottest(Consumer<? super Node<K, V>> action) {
+        clock.forEach(action);
+    }
+}
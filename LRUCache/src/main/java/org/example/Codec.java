@@ -0,0 +1,82 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts values to and from bytes for caches that keep them outside the Java heap or on disk. Buffers handed to
+ * {@link #write} and {@link #read} are positioned at the encoded bytes and limited to exactly {@link #sizeOf}
+ * bytes; implementations use relative gets and puts and must not keep a reference to the buffer.
+ */
+public interface Codec<T> {
+    int sizeOf(T value);
+
+    void write(T value, ByteBuffer target);
+
+    T read(ByteBuffer source);
+
+    static Codec<byte[]> bytes() {
+        return new Codec<>() {
+            @Override
+            public int sizeOf(byte[] value) {
+                return value.length;
+            }
+
+            @Override
+            public void write(byte[] value, ByteBuffer target) {
+                target.put(value);
+            }
+
+            @Override
+            public byte[] read(ByteBuffer source) {
+                byte[] value = new byte[source.remaining()];
+                source.get(value);
+                return value;
+            }
+        };
+    }
+
+    static Codec<String> utf8() {
+        return new Codec<>() {
+            @Override
+            public int sizeOf(String value) {
+                // Encodes twice for non-ASCII strings; cheap next to the copy into the slab
+                for (int i = 0; i < value.length(); i++) {
+                    if (value.charAt(i) >= 0x80) return value.getBytes(StandardCharsets.UTF_8).length;
+                }
+                return value.length();
+            }
+
+            @Override
+            public void write(String value, ByteBuffer target) {
+                target.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String read(ByteBuffer source) {
+                byte[] bytes = new byte[source.remaining()];
+                source.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    static Codec<Long> longs() {
+        return new Codec<>() {
+            @Override
+            public int sizeOf(Long value) {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(Long value, ByteBuffer target) {
+                target.putLong(value);
+            }
+
+            @Override
+            public Long read(ByteBuffer source) {
+                return source.getLong();
+            }
+        };
+    }
+}
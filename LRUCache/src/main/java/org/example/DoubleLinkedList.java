@@ -1,5 +1,7 @@
 package org.example;
 
+import java.util.function.Consumer;
+
 public class DoubleLinkedList<K, V> {
     Node<K, V> head, tail;
 
@@ -20,6 +22,13 @@ public class DoubleLinkedList<K, V> {
     public void remove(Node<K, V> node) {
         node.previous.next = node.next;
         node.next.previous = node.previous;
+        node.next = null;
+        node.previous = null;
+    }
+
+    // A node is linked exactly while it is in a list, which lets buffered hits skip nodes removed in the meantime
+    public boolean contains(Node<K, V> node) {
+        return node.previous != null;
     }
 
     public void moveToFront(Node<K, V> node) {
@@ -27,7 +36,24 @@ public class DoubleLinkedList<K, V> {
         addFirst(node);
     }
 
+    // From the most recently added or moved node to the tail
+    public void forEach(Consumer<? super Node<K, V>> action) {
+        for (Node<K, V> node = head.next; node != tail; node = node.next) {
+            action.accept(node);
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.next == tail;
+    }
+
+    public Node<K,V> peekLast() {
+        return isEmpty() ? null : tail.previous;
+    }
+
+    // Returns null on an empty list instead of unlinking the head sentinel
     public Node<K,V> removeLast() {
+        if (isEmpty()) return null;
         Node<K,V> last = tail.previous;
         remove(last);
         return last;
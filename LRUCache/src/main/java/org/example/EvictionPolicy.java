@@ -0,0 +1,61 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * Decides the eviction order inside one segment of an {@link LRUCache}. All methods are called while holding the
+ * segment lock, so implementations need no synchronization of their own; the cache keeps the key-to-node map, the
+ * entry count and the weight, and calls {@link #evict()} until the segment fits its capacity again.
+ * <p>
+ * Nodes are handles owned by the cache. A policy may link them into {@link DoubleLinkedList}s, but must treat a
+ * node it has unlinked as gone: hits replayed from the read buffer can name nodes removed in the meantime.
+ * <p>
+ * Implementations are created once per segment through a factory taking the segment's capacity, for example
+ * {@code LRUCache.builder().evictionPolicy(EvictionPolicy::clock)}.
+ */
+public interface EvictionPolicy<K, V> {
+    /** A new entry has been added to the segment. */
+    void onInsert(Node<K, V> node);
+
+    /** An entry was read or overwritten; may be a node that has been removed since, which must be ignored. */
+    void onAccess(Node<K, V> node);
+
+    /** An entry's value was replaced, changing its weight by {@code weightDelta}. */
+    default void onUpdate(Node<K, V> node, int weightDelta) {
+        onAccess(node);
+    }
+
+    /** An entry was removed explicitly or expired. */
+    void onRemove(Node<K, V> node);
+
+    /** Unlinks and returns the entry to evict, or null if the policy holds no entries. */
+    Node<K, V> evict();
+
+    /** Visits every entry, from the one this policy would keep longest to its next victim. Must not modify order. */
+    void forEachHottest(Consumer<? super Node<K, V>> action);
+
+    /** Exact LRU: one recency list, moved to the front on every hit. */
+    static <K, V> EvictionPolicy<K, V> lru(long capacity) {
+        return new LruPolicy<>();
+    }
+
+    /** Segmented LRU: a probation list for new entries and a protected list for entries hit again. */
+    static <K, V> EvictionPolicy<K, V> slru(long capacity) {
+        return new SlruPolicy<>(capacity);
+    }
+
+    /** CLOCK: a hit only sets a reference bit; the list is only touched on insert and evict. */
+    static <K, V> EvictionPolicy<K, V> clock(long capacity) {
+        return new ClockPolicy<>();
+    }
+
+    /** S3-FIFO: a small probationary FIFO, a main FIFO with reinsertion, and a ghost queue of recent evictees. */
+    static <K, V> EvictionPolicy<K, V> s3Fifo(long capacity) {
+        return new S3FifoPolicy<>(capacity);
+    }
+
+    /** W-TinyLFU: a window LRU in front of an SLRU main area guarded by a frequency sketch. */
+    static <K, V> EvictionPolicy<K, V> windowTinyLfu(long capacity) {
+        return new WindowTinyLfuPolicy<>(capacity);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+/**
+ * Count-min sketch of 4-bit counters used to estimate how often a key has been seen recently. Each {@code long}
+ * packs sixteen counters and every key maps to one counter in each of four rows, so the estimate is the minimum of
+ * four saturating counters. After {@code 10 * capacity} increments all counters are halved, which ages out keys
+ * that were popular a long time ago.
+ * <p>
+ * Not thread-safe; each segment owns one and only touches it under the segment lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, capacity);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < 4; row++) {
+            long h = indexHash(hash, row);
+            int index = (int) (h >>> 32) & tableMask;
+            int shift = (int) (h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xf));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            long h = indexHash(hash, row);
+            int index = (int) (h >>> 32) & tableMask;
+            int shift = (int) (h & 15) << 2;
+            if (((table[index] >>> shift) & 0xf) != MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    // Halves every counter; the odd bits that are shifted out are what gets forgotten
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        h *= 0xac4c1b51;
+        return h ^ (h >>> 15);
+    }
+
+    private static long indexHash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 29);
+    }
+}
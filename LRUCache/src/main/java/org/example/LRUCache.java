@@ -1,48 +1,1002 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Bounded, thread-safe cache. Keys are striped over segments, each with its own lock, {@link EvictionPolicy} and
+ * {@link TimerWheel}, so threads only contend when they touch the same segment; with one segment (the default) and
+ * the default policy it is exactly a global LRU. Everything beyond a plain capacity is set up through
+ * {@link #builder()} and described on the option or method that provides it.
+ */
 public class LRUCache<K,V> {
-    int capacity;
-    DoubleLinkedList<K,V> list;
+    private static final Logger logger = Logger.getLogger(LRUCache.class.getName());
+    private static final int REFRESH_QUEUE_SIZE = 1_024;
+    // Every segment owns a timer wheel of a few kilobytes, so far more segments than cores only costs memory
+    private static final int MAX_SEGMENTS = 1 << 12;
+    // Snapshot file: magic, format version and entry count, then length-prefixed key and value per entry
+    private static final int SNAPSHOT_MAGIC = 0x4C525553;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 3 * Integer.BYTES;
+    private static final int SNAPSHOT_BUFFER = 64 * 1024;
+    // Entries reloaded per segment lock acquisition, so warm-up never holds a segment for long
+    private static final int RELOAD_BATCH = 256;
+
+    // Entry count limit, or the weight budget when the cache has a weigher
+    long capacity;
     Map<K, Node<K,V>> cache;
+    final Segment<K,V>[] segments;
+    private final int segmentMask;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+    private final Weigher<? super K, ? super V> weigher;
+    private final boolean bufferedReads;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final Ticker ticker;
+    private final Map<K, Load<V>> inFlight = new ConcurrentHashMap<>();
+    private final long refreshAfterWriteNanos;
+    private final Executor refreshExecutor;
+    private final StatsCounter stats = new StatsCounter();
+    private final RemovalListener<? super K, ? super V> removalListener;
+    private final Executor listenerExecutor;
 
     public LRUCache(int capacity) {
+        this(capacity, 1);
+    }
+
+    public LRUCache(int capacity, int concurrencyLevel) {
+        this(new Builder<K, V>().capacity(capacity).concurrencyLevel(concurrencyLevel));
+    }
+
+    @SuppressWarnings("unchecked")
+    private LRUCache(Builder<K, V> builder) {
+        if ((builder.maximumWeight > 0) == (builder.capacity > 0) || builder.concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Exactly one of capacity or maximum weight must be positive, "
+                    + "and the concurrency level must be positive");
+        }
+        if ((builder.maximumWeight > 0) != (builder.weigher != null)) {
+            throw new IllegalArgumentException("A maximum weight needs a weigher and a weigher needs a maximum weight");
+        }
+        long capacity = builder.maximumWeight > 0 ? builder.maximumWeight : builder.capacity;
+        // Clamped so rounding up to a power of two cannot overflow
+        int concurrencyLevel = Math.min(builder.concurrencyLevel, MAX_SEGMENTS);
         this.capacity = capacity;
-        this.list = new DoubleLinkedList<>();
-        cache = new ConcurrentHashMap<>();
+        this.weigher = builder.weigher;
+        this.cache = new ConcurrentHashMap<>();
+        this.bufferedReads = builder.bufferedReads;
+        this.expireAfterWriteNanos = builder.expireAfterWrite == null ? 0 : builder.expireAfterWrite.toNanos();
+        this.expireAfterAccessNanos = builder.expireAfterAccess == null ? 0 : builder.expireAfterAccess.toNanos();
+        this.ticker = builder.ticker;
+        this.refreshAfterWriteNanos = builder.refreshAfterWrite == null ? 0 : builder.refreshAfterWrite.toNanos();
+        this.refreshExecutor = builder.refreshExecutor != null || refreshAfterWriteNanos == 0
+                ? builder.refreshExecutor : defaultRefreshExecutor();
+        this.removalListener = builder.removalListener;
+        this.listenerExecutor = builder.listenerExecutor;
+        int segmentCount = (int) Math.min(Integer.highestOneBit(concurrencyLevel - 1) << 1, Long.highestOneBit(capacity));
+        if (segmentCount == 0) segmentCount = 1;
+        this.segments = newSegmentArray(segmentCount);
+        this.segmentMask = segmentCount - 1;
+        long segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, builder.evictionPolicy.apply(segmentCapacity),
+                    bufferedReads ? new ReadBuffer<>(Runtime.getRuntime().availableProcessors()) : null,
+                    new TimerWheel<>(ticker.read()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Segment<K, V>[] newSegmentArray(int length) {
+        return (Segment<K, V>[]) new Segment<?, ?>[length];
+    }
+
+    Segment<K,V> segmentFor(Object key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private int segmentIndex(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & segmentMask;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, expireAfterWriteNanos, false);
     }
 
-    public synchronized void put(K key, V value) {
-        if (cache.containsKey(key)) {
-            Node<K, V> node = cache.get(key);
+    // The entry expires exactly ttl after this write, regardless of the cache-wide expiration settings
+    public void put(K key, V value, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        put(key, value, ttl.toNanos(), true);
+    }
+
+    private void put(K key, V value, long ttlNanos, boolean fixedExpiry) {
+        Segment<K,V> segment = segmentFor(key);
+        int entryWeight = weigh(key, value);
+        long now = ticker.read();
+        segment.lock();
+        try {
+            maintain(segment, now);
+            putLocked(segment, key, value, entryWeight, ttlNanos, fixedExpiry, null, now);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int entryWeight = weigher == null ? 1 : weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Negative weight for key " + key);
+        }
+        return entryWeight;
+    }
+
+    // The body of a put; the caller holds the segment lock and has already run maintenance. With an expected node,
+    // the write only happens if that node is still the key's current entry
+    private void putLocked(Segment<K,V> segment, K key, V value, int entryWeight, long ttlNanos, boolean fixedExpiry,
+                           Node<K, V> expected, long now) {
+        Node<K, V> node = cache.get(key);
+        if (expected != null && node != expected) return;
+        if (entryWeight > segment.capacity) {
+            // Could never fit: the write is rejected and any older value for the key goes with it
+            if (node != null) {
+                cache.remove(key);
+                discard(segment, node, RemovalCause.SIZE);
+            }
+            notify(key, value, RemovalCause.SIZE);
+            return;
+        }
+        if (node != null) {
+            int delta = entryWeight - node.weight;
+            V oldValue = node.value;
             node.value = value;
-            list.moveToFront(node);
+            node.weight = entryWeight;
+            node.writeTime = now;
+            segment.weight += delta;
+            weight.addAndGet(delta);
+            setExpiry(node, now, ttlNanos, fixedExpiry);
+            segment.timerWheel.schedule(node);
+            segment.policy.onUpdate(node, delta);
+            if (oldValue != value) notify(key, oldValue, RemovalCause.REPLACED);
         } else {
-            if (cache.size() == capacity) {
-                Node<K, V> lru = list.removeLast();
-                if (lru != null) cache.remove(lru.key);
-            }
             Node<K, V> newNode = new Node<>(key, value);
-            list.addFirst(newNode);
+            newNode.weight = entryWeight;
+            newNode.writeTime = now;
+            setExpiry(newNode, now, ttlNanos, fixedExpiry);
             cache.put(key, newNode);
+            segment.policy.onInsert(newNode);
+            segment.timerWheel.schedule(newNode);
+            segment.size++;
+            segment.weight += entryWeight;
+            size.incrementAndGet();
+            weight.addAndGet(entryWeight);
+        }
+        // The weight is added before checking the limit, so two segments filling up at once both see it
+        while (segment.weight > segment.capacity || weight.get() > capacity) {
+            // May be the new entry itself when the policy refuses to admit it
+            Node<K, V> victim = segment.policy.evict();
+            if (victim == null) break;
+            cache.remove(victim.key);
+            discard(segment, victim, RemovalCause.SIZE);
         }
     }
 
-    public synchronized V get(K key) {
-        if( cache.containsKey(key)) {
-            list.moveToFront(cache.get(key));
-            return cache.get(key).value;
+    public V get(K key) {
+        Node<K, V> node = getNode(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return node.value;
+    }
+
+    // A second look after claiming a load; not counted as another hit or miss
+    private V getQuietly(K key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    // Looks up a live entry and records the access; null on a miss or an expired entry
+    private Node<K, V> getNode(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) return null;
+        Segment<K,V> segment = segmentFor(key);
+        long now = node.expiresAt != TimerWheel.NEVER || expireAfterAccessNanos > 0 ? ticker.read() : 0;
+        if (isExpired(node, now)) {
+            // Reclaim it now if the segment is free; otherwise the timer wheel will
+            if (segment.tryLock()) {
+                try {
+                    maintain(segment, now);
+                } finally {
+                    segment.unlock();
+                }
+            }
+            return null;
+        }
+        if (bufferedReads) {
+            recordAccess(node, now);
+            if (segment.readBuffer.offer(node) && segment.tryLock()) {
+                try {
+                    maintain(segment, now);
+                } finally {
+                    segment.unlock();
+                }
+            }
+            return node;
+        }
+        segment.lock();
+        try {
+            // The node may have been evicted or replaced since the lookup; only a live node is reordered
+            if (cache.get(key) != node) return null;
+            recordAccess(node, now);
+            segment.policy.onAccess(node);
+            maintain(segment, now);
+            return node;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached values for the given keys. Keys are grouped by segment first, so each segment lock is
+     * taken once per call however many of its keys are asked for.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        int[] offsets = new int[segments.length + 1];
+        Object[] grouped = groupBySegment(keys, key -> key, offsets);
+        Map<K, V> result = new HashMap<>(mapCapacity(grouped.length));
+        long now = ticker.read();
+        for (int s = 0; s < segments.length; s++) {
+            if (offsets[s] == offsets[s + 1]) continue;
+            Segment<K,V> segment = segments[s];
+            segment.lock();
+            try {
+                maintain(segment, now);
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    K key = (K) grouped[i];
+                    Node<K, V> node = cache.get(key);
+                    if (node == null || isExpired(node, now)) {
+                        stats.recordMiss();
+                        continue;
+                    }
+                    stats.recordHit();
+                    recordAccess(node, now);
+                    segment.policy.onAccess(node);
+                    result.put(key, node.value);
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+        return result;
+    }
+
+    /** Stores every mapping, taking each segment lock once. Entries are weighed before any lock is taken. */
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        int[] offsets = new int[segments.length + 1];
+        Object[] grouped = groupBySegment(entries.entrySet(), Map.Entry::getKey, offsets);
+        int[] weights = new int[grouped.length];
+        for (int i = 0; i < grouped.length; i++) {
+            Map.Entry<K, V> entry = (Map.Entry<K, V>) grouped[i];
+            weights[i] = weigh(entry.getKey(), entry.getValue());
+        }
+        long now = ticker.read();
+        for (int s = 0; s < segments.length; s++) {
+            if (offsets[s] == offsets[s + 1]) continue;
+            Segment<K,V> segment = segments[s];
+            segment.lock();
+            try {
+                maintain(segment, now);
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    Map.Entry<K, V> entry = (Map.Entry<K, V>) grouped[i];
+                    putLocked(segment, entry.getKey(), entry.getValue(), weights[i], expireAfterWriteNanos, false,
+                            null, now);
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /** Removes every given key, taking each segment lock once. */
+    @SuppressWarnings("unchecked")
+    public void invalidateAll(Collection<? extends K> keys) {
+        int[] offsets = new int[segments.length + 1];
+        Object[] grouped = groupBySegment(keys, key -> key, offsets);
+        for (int s = 0; s < segments.length; s++) {
+            if (offsets[s] == offsets[s + 1]) continue;
+            Segment<K,V> segment = segments[s];
+            segment.lock();
+            try {
+                segment.drainReadBuffer();
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    Node<K, V> node = cache.remove((K) grouped[i]);
+                    if (node != null) {
+                        discard(segment, node, RemovalCause.EXPLICIT);
+                    }
+                }
+            } finally {
+                segment.unlock();
+            }
         }
-        return null;
     }
 
-    public synchronized void remove(K key) {
-        if( cache.containsKey(key)) {
-            Node<K, V> node = cache.get(key);
-            list.remove(node);
-            cache.remove(key);
+    // Counting sort by segment: items of segment s end up in [offsets[s], offsets[s + 1]) of the returned array
+    private <T> Object[] groupBySegment(Collection<T> items, Function<? super T, ?> keyOf, int[] offsets) {
+        int[] segmentOf = new int[items.size()];
+        int i = 0;
+        for (T item : items) {
+            int s = segmentIndex(keyOf.apply(item));
+            segmentOf[i++] = s;
+            offsets[s + 1]++;
+        }
+        for (int s = 0; s < segments.length; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+        int[] next = Arrays.copyOf(offsets, segments.length);
+        Object[] grouped = new Object[segmentOf.length];
+        i = 0;
+        for (T item : items) {
+            grouped[next[segmentOf[i++]]++] = item;
+        }
+        return grouped;
+    }
+
+    // HashMap capacity that holds n entries without resizing at the default load factor
+    private static int mapCapacity(int n) {
+        return (int) (n / 0.75f) + 1;
+    }
+
+    public void remove(K key) {
+        Segment<K,V> segment = segmentFor(key);
+        segment.lock();
+        try {
+            segment.drainReadBuffer();
+            Node<K, V> node = cache.remove(key);
+            if (node != null) {
+                discard(segment, node, RemovalCause.EXPLICIT);
+            }
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached value, or loads it with {@code loader} and caches it. Concurrent misses for the same key
+     * share a single loader call, so a cold hot key costs one backend request instead of one per caller; its
+     * exception, if any, is rethrown to every waiting caller. A loader that asks for the key it is loading gets an
+     * {@link IllegalStateException}. Past the refresh age the cached value is still returned at once and reloaded
+     * in the background.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = getNode(key);
+        if (node != null) {
+            stats.recordHit();
+            V value = node.value;
+            if (refreshAfterWriteNanos > 0) refreshIfStale(node, loader);
+            return value;
+        }
+        stats.recordMiss();
+        V value;
+        Load<V> future = new Load<>();
+        Load<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) return await(key, existing);
+        try {
+            // Another thread may have finished loading between the miss and claiming the key
+            value = getQuietly(key);
+            if (value == null) {
+                value = load(key, loader);
+                if (value != null) put(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the values for all keys that are cached or could be loaded. Missing keys that no other thread is
+     * already loading go to {@code bulkLoader} in one call; keys it leaves out of its result are not cached.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys,
+                            Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        Map<K, V> result = getAll(keys);
+        Map<K, Load<V>> claimed = new HashMap<>();
+        Map<K, Load<V>> waiting = new HashMap<>();
+        for (K key : keys) {
+            if (result.containsKey(key) || claimed.containsKey(key) || waiting.containsKey(key)) continue;
+            Load<V> future = new Load<>();
+            Load<V> existing = inFlight.putIfAbsent(key, future);
+            if (existing != null) waiting.put(key, existing);
+            else claimed.put(key, future);
+        }
+        if (!claimed.isEmpty()) {
+            loadAll(claimed, bulkLoader, result);
+        }
+        for (Map.Entry<K, Load<V>> entry : waiting.entrySet()) {
+            V value = await(entry.getKey(), entry.getValue());
+            if (value != null) result.put(entry.getKey(), value);
+        }
+        return result;
+    }
+
+    private void loadAll(Map<K, Load<V>> claimed,
+                         Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkLoader,
+                         Map<K, V> result) {
+        try {
+            Set<K> missing = new LinkedHashSet<>();
+            for (Map.Entry<K, Load<V>> entry : claimed.entrySet()) {
+                V value = getQuietly(entry.getKey());
+                if (value != null) {
+                    entry.getValue().complete(value);
+                    result.put(entry.getKey(), value);
+                } else {
+                    missing.add(entry.getKey());
+                }
+            }
+            Map<? extends K, ? extends V> loaded = missing.isEmpty() ? Map.of() : bulkLoad(missing, bulkLoader);
+            for (K key : missing) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    put(key, value);
+                    result.put(key, value);
+                }
+                claimed.get(key).complete(value);
+            }
+        } catch (RuntimeException | Error e) {
+            for (Load<V> future : claimed.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            for (Map.Entry<K, Load<V>> entry : claimed.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // Serves the stale value and reloads it in the background; the CAS on the node lets one refresh run per entry
+    private void refreshIfStale(Node<K, V> node, Function<? super K, ? extends V> loader) {
+        long writtenAt = node.writeTime;
+        if (ticker.read() - writtenAt < refreshAfterWriteNanos || !Node.REFRESHING.compareAndSet(node, 0, 1)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = load(node.key, loader);
+                    if (value != null) putRefreshed(node, writtenAt, value);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Refresh failed for key " + node.key + ", keeping the stale value", e);
+                } finally {
+                    node.refreshing = 0;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The refresh queue is full; a later read retries
+            node.refreshing = 0;
+        }
+    }
+
+    // The reloaded value keeps the entry's own TTL. A write or removal that raced the reload wins and the value is
+    // dropped; writes update the node in place, so the write time tells them apart
+    private void putRefreshed(Node<K, V> node, long writtenAt, V value) {
+        Segment<K,V> segment = segmentFor(node.key);
+        int entryWeight = weigh(node.key, value);
+        long now = ticker.read();
+        segment.lock();
+        try {
+            maintain(segment, now);
+            if (cache.get(node.key) != node || node.writeTime != writtenAt) return;
+            long ttlNanos = node.writeDeadline == TimerWheel.NEVER ? 0 : node.writeDeadline - node.writeTime;
+            putLocked(segment, node.key, value, entryWeight, ttlNanos, node.fixedExpiry, node, now);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            V value = loader.apply(key);
+            loaded = value != null;
+            return value;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, loaded);
+        }
+    }
+
+    // One bulk call is one load in the stats, however many keys it returns
+    private Map<? extends K, ? extends V> bulkLoad(
+            Set<K> keys, Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            Map<? extends K, ? extends V> values = bulkLoader.apply(keys);
+            loaded = values != null;
+            return values == null ? Map.of() : values;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, loaded);
+        }
+    }
+
+    // A load started further up this thread's own stack would never complete while the thread waits for it
+    private static <V> V await(Object key, Load<V> load) {
+        if (load.owner == Thread.currentThread()) {
+            throw new IllegalStateException("Recursive load of key " + key);
+        }
+        return join(load);
+    }
+
+    // Waits for another thread's load and surfaces its failure as if this caller had run the loader
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    // Drops a node that is already out of the map from the policy, the timer wheel and the size accounting
+    private void discard(Segment<K,V> segment, Node<K, V> node, RemovalCause cause) {
+        if (cause.wasEvicted()) stats.recordEviction(node.weight);
+        notify(node.key, node.value, cause);
+        segment.policy.onRemove(node);
+        segment.timerWheel.deschedule(node);
+        segment.size--;
+        segment.weight -= node.weight;
+        size.decrementAndGet();
+        weight.addAndGet(-node.weight);
+    }
+
+    // Hands the notification to the listener executor so the caller, usually holding a segment lock, never waits
+    private void notify(K key, V value, RemovalCause cause) {
+        if (removalListener == null) return;
+        try {
+            listenerExecutor.execute(() -> {
+                try {
+                    removalListener.onRemoval(key, value, cause);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Removal listener failed for key " + key, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Dropped removal notification for key " + key, e);
+        }
+    }
+
+    private void setExpiry(Node<K, V> node, long now, long ttlNanos, boolean fixedExpiry) {
+        node.fixedExpiry = fixedExpiry;
+        node.writeDeadline = ttlNanos > 0 ? now + ttlNanos : TimerWheel.NEVER;
+        node.expiresAt = node.writeDeadline;
+        recordAccess(node, now);
+    }
+
+    // Pushes the deadline out on access; the timer wheel notices the later time when the old bucket fires
+    private void recordAccess(Node<K, V> node, long now) {
+        if (expireAfterAccessNanos > 0 && !node.fixedExpiry) {
+            node.expiresAt = Math.min(node.writeDeadline, now + expireAfterAccessNanos);
+        }
+    }
+
+    private static boolean isExpired(Node<?, ?> node, long now) {
+        long expiresAt = node.expiresAt;
+        return expiresAt != TimerWheel.NEVER && now - expiresAt >= 0;
+    }
+
+    // Amortized housekeeping under the segment lock: replay buffered hits, then reclaim expired entries
+    private void maintain(Segment<K,V> segment, long now) {
+        segment.drainReadBuffer();
+        segment.timerWheel.advance(now, node -> {
+            if (cache.remove(node.key, node)) {
+                discard(segment, node, RemovalCause.EXPIRED);
+            }
+        });
+    }
+
+    // Small daemon pool with a bounded queue: refreshes beyond what it can take are skipped, not queued forever
+    private static Executor defaultRefreshExecutor() {
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE), runnable -> {
+                    Thread thread = new Thread(runnable, "lru-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Writes every live entry to {@code file}, hottest first, in a compact binary format: each segment's entries in
+     * its policy's order, interleaved round robin so that any prefix of the file holds the hottest entries of every
+     * segment. Segment locks are held only while collecting the node references; encoding and I/O happen after.
+     * The file is written next to its target and moved into place, so a crash never leaves half a snapshot.
+     *
+     * @return the number of entries written
+     */
+    public int snapshotTo(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        List<List<Node<K, V>>> perSegment = new ArrayList<>(segments.length);
+        long now = ticker.read();
+        int total = 0;
+        for (Segment<K,V> segment : segments) {
+            List<Node<K, V>> nodes = new ArrayList<>();
+            segment.lock();
+            try {
+                segment.drainReadBuffer();
+                segment.policy.forEachHottest(node -> {
+                    if (!isExpired(node, now)) nodes.add(node);
+                });
+            } finally {
+                segment.unlock();
+            }
+            perSegment.add(nodes);
+            total += nodes.size();
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(total);
+            int written = 0;
+            for (int rank = 0; written < total; rank++) {
+                for (List<Node<K, V>> nodes : perSegment) {
+                    if (rank >= nodes.size()) continue;
+                    Node<K, V> node = nodes.get(rank);
+                    writeField(channel, buffer, keyCodec, node.key);
+                    writeField(channel, buffer, valueCodec, node.value);
+                    written++;
+                }
+            }
+            flush(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return total;
+    }
+
+    /** Reloads the hottest {@code maxEntries} entries of a snapshot in the background on the common pool. */
+    public CompletableFuture<Integer> loadFrom(Path file, Codec<K> keyCodec, Codec<V> valueCodec, int maxEntries) {
+        return loadFrom(file, keyCodec, valueCodec, maxEntries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reloads the hottest {@code maxEntries} entries of a file written by {@link #snapshotTo} without blocking the
+     * caller, so a restarted process does not begin with a miss storm. The file is memory-mapped, decoded in
+     * parallel chunks and inserted by one task per segment, coldest first, so each segment ends up in the order it
+     * was saved in. The cache serves traffic throughout; a key written since startup is newer than its snapshot
+     * and is left alone. Entries get a fresh write time, so expiry restarts from the reload.
+     *
+     * @return a future of the number of entries inserted
+     */
+    public CompletableFuture<Integer> loadFrom(Path file, Codec<K> keyCodec, Codec<V> valueCodec, int maxEntries,
+                                               Executor executor) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        return CompletableFuture.supplyAsync(() -> readSnapshot(file, maxEntries), executor)
+                .thenCompose(snapshot -> decode(snapshot, keyCodec, valueCodec, executor))
+                .thenCompose(entries -> reload(entries, executor));
+    }
+
+    private static <T> void writeField(FileChannel channel, ByteBuffer buffer, Codec<T> codec, T value)
+            throws IOException {
+        int length = codec.sizeOf(value);
+        if (buffer.remaining() < Integer.BYTES + length) {
+            flush(channel, buffer);
+        }
+        ByteBuffer target = buffer;
+        if (buffer.remaining() < Integer.BYTES + length) {
+            // Larger than the whole write buffer: encoded into a buffer of its own
+            target = ByteBuffer.allocate(Integer.BYTES + length);
+        }
+        target.putInt(length);
+        codec.write(value, target.slice(target.position(), length));
+        target.position(target.position() + length);
+        if (target != buffer) {
+            flush(channel, target);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static <T> T readField(ByteBuffer data, Codec<T> codec) {
+        int length = data.getInt();
+        ByteBuffer source = data.slice(data.position(), length);
+        data.position(data.position() + length);
+        return codec.read(source);
+    }
+
+    // Advances past one field, or returns false if the file ends inside it
+    private static boolean skipField(ByteBuffer data) {
+        if (data.remaining() < Integer.BYTES) return false;
+        int length = data.getInt();
+        if (length < 0 || length > data.remaining()) return false;
+        data.position(data.position() + length);
+        return true;
+    }
+
+    // Maps the file and finds where each of the first maxEntries records starts; only lengths are read here
+    private static Snapshot readSnapshot(Path file, int maxEntries) {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // One mapping covers at most 2 GB; records past that are the coldest and are left out
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read snapshot " + file, e);
+        }
+        if (data.remaining() < SNAPSHOT_HEADER || data.getInt() != SNAPSHOT_MAGIC || data.getInt() != SNAPSHOT_VERSION) {
+            throw new IllegalStateException("Not an LRUCache snapshot: " + file);
+        }
+        int[] offsets = new int[Math.max(0, Math.min(data.getInt(), maxEntries))];
+        int count = 0;
+        while (count < offsets.length) {
+            int start = data.position();
+            if (!skipField(data) || !skipField(data)) break;
+            offsets[count++] = start;
+        }
+        return new Snapshot(data, Arrays.copyOf(offsets, count));
+    }
+
+    // Decodes records in parallel chunks into a list ordered coldest first
+    private CompletableFuture<List<Map.Entry<K, V>>> decode(Snapshot snapshot, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                            Executor executor) {
+        int count = snapshot.offsets().length;
+        @SuppressWarnings("unchecked")
+        Map.Entry<K, V>[] entries = (Map.Entry<K, V>[]) new Map.Entry<?, ?>[count];
+        int chunks = Math.max(1, Math.min(count / RELOAD_BATCH, Runtime.getRuntime().availableProcessors()));
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) count * c / chunks);
+            int to = (int) ((long) count * (c + 1) / chunks);
+            tasks[c] = CompletableFuture.runAsync(() -> {
+                ByteBuffer data = snapshot.data().duplicate();
+                for (int i = from; i < to; i++) {
+                    data.position(snapshot.offsets()[i]);
+                    K key = readField(data, keyCodec);
+                    V value = readField(data, valueCodec);
+                    entries[count - 1 - i] = Map.entry(key, value);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(tasks).thenApply(ignored -> Arrays.asList(entries));
+    }
+
+    // One task per segment; the grouping is stable, so each segment still sees its entries coldest first
+    private CompletableFuture<Integer> reload(List<Map.Entry<K, V>> entries, Executor executor) {
+        int[] offsets = new int[segments.length + 1];
+        Object[] grouped = groupBySegment(entries, Map.Entry::getKey, offsets);
+        List<CompletableFuture<Integer>> tasks = new ArrayList<>(segments.length);
+        for (int s = 0; s < segments.length; s++) {
+            Segment<K,V> segment = segments[s];
+            int from = offsets[s];
+            int to = offsets[s + 1];
+            if (from == to) continue;
+            tasks.add(CompletableFuture.supplyAsync(() -> reload(segment, grouped, from, to), executor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            int loaded = 0;
+            for (CompletableFuture<Integer> task : tasks) loaded += task.join();
+            return loaded;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private int reload(Segment<K,V> segment, Object[] grouped, int from, int to) {
+        int loaded = 0;
+        int[] weights = new int[RELOAD_BATCH];
+        for (int batch = from; batch < to; batch += RELOAD_BATCH) {
+            int end = Math.min(to, batch + RELOAD_BATCH);
+            for (int i = batch; i < end; i++) {
+                Map.Entry<K, V> entry = (Map.Entry<K, V>) grouped[i];
+                weights[i - batch] = weigh(entry.getKey(), entry.getValue());
+            }
+            long now = ticker.read();
+            segment.lock();
+            try {
+                maintain(segment, now);
+                for (int i = batch; i < end; i++) {
+                    Map.Entry<K, V> entry = (Map.Entry<K, V>) grouped[i];
+                    if (cache.containsKey(entry.getKey())) continue;
+                    putLocked(segment, entry.getKey(), entry.getValue(), weights[i - batch], expireAfterWriteNanos,
+                            false, null, now);
+                    loaded++;
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    // A mapped snapshot and the start of each record to reload, hottest first
+    private record Snapshot(ByteBuffer data, int[] offsets) {
+    }
+
+    // Hits, misses, evictions and loads since the cache was built
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // Total weight of the cached entries; the entry count when the cache has no weigher
+    public long weight() {
+        return weight.get();
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    // A single-flight load, remembering which thread runs the loader
+    private static final class Load<V> extends CompletableFuture<V> {
+        final Thread owner = Thread.currentThread();
+    }
+
+    public static final class Builder<K, V> {
+        private int capacity;
+        private int concurrencyLevel = 1;
+        private boolean bufferedReads;
+        private LongFunction<? extends EvictionPolicy<K, V>> evictionPolicy = EvictionPolicy::lru;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Ticker ticker = Ticker.system();
+        private long maximumWeight;
+        private Weigher<? super K, ? super V> weigher;
+        private Duration refreshAfterWrite;
+        private Executor refreshExecutor;
+        private RemovalListener<? super K, ? super V> removalListener;
+        private Executor listenerExecutor = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        public Builder<K, V> capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        // Number of segments; the capacity is split evenly between them, and the total stays a global soft limit
+        // that a write enforces by evicting from its own segment
+        public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        // Hits are recorded in lossy read buffers instead of reordering the list under the segment lock; whichever
+        // thread next holds the lock replays them, so eviction order becomes approximately rather than exactly LRU
+        public Builder<K, V> bufferedReads(boolean bufferedReads) {
+            this.bufferedReads = bufferedReads;
+            return this;
+        }
+
+        // New entries must beat the eviction victim on estimated frequency to enter the main area, so a one-off
+        // scan no longer flushes the hot set
+        public Builder<K, V> tinyLfuAdmission(boolean tinyLfuAdmission) {
+            return evictionPolicy(tinyLfuAdmission ? EvictionPolicy::windowTinyLfu : EvictionPolicy::lru);
+        }
+
+        // Called once per segment with the segment's capacity; defaults to EvictionPolicy::lru, the alternatives
+        // are SLRU, CLOCK, S3-FIFO and W-TinyLFU
+        public Builder<K, V> evictionPolicy(LongFunction<? extends EvictionPolicy<K, V>> factory) {
+            this.evictionPolicy = factory;
+            return this;
+        }
+
+        // Expired entries are never returned; each segment's timer wheel reclaims them as operations take its lock,
+        // without full scans or sweeper threads
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWrite = requirePositive(duration);
+            return this;
+        }
+
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            this.expireAfterAccess = requirePositive(duration);
+            return this;
+        }
+
+        // Bounds the cache by total weight instead of entry count; use instead of capacity, together with a weigher.
+        // An entry heavier than its segment's share of the budget is not cached at all
+        public Builder<K, V> maximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        public Builder<K, V> weigher(Weigher<? super K, ? super V> weigher) {
+            this.weigher = weigher;
+            return this;
+        }
+
+        // Entries older than this since their last write are still returned, and one reload is scheduled on the
+        // refresh executor, so readers never wait on a reload of a hot entry.
+        public Builder<K, V> refreshAfterWrite(Duration duration) {
+            this.refreshAfterWrite = requirePositive(duration);
+            return this;
+        }
+
+        // Defaults to a small daemon pool with a bounded queue
+        public Builder<K, V> refreshExecutor(Executor executor) {
+            this.refreshExecutor = executor;
+            return this;
+        }
+
+        // Told about every eviction, expiration, replacement and explicit removal, on the listener executor, so it
+        // never delays the write that caused the removal
+        public Builder<K, V> removalListener(RemovalListener<? super K, ? super V> listener) {
+            this.removalListener = listener;
+            return this;
+        }
+
+        public Builder<K, V> listenerExecutor(Executor executor) {
+            this.listenerExecutor = executor;
+            return this;
+        }
+
+        public Builder<K, V> ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        private static Duration requirePositive(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Expiration must be positive");
+            }
+            return duration;
+        }
+
+        public LRUCache<K, V> build() {
+            return new LRUCache<>(this);
         }
     }
 }
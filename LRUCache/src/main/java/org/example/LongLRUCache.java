@@ -0,0 +1,183 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * LRU cache specialised for {@code long} keys, for ID caches with tens of millions of entries. Nothing is allocated
+ * per entry: keys live in an open-addressing {@code long[]} table (linear probing, backward-shift deletion, no
+ * tombstones) that points into fixed entry slots, and the recency list is a pair of {@code int[]} prev/next index
+ * arrays. Free slots are chained through the next array, so steady-state get/put/remove allocate nothing and an
+ * entry costs roughly 30-40 bytes plus the value, instead of a Node, a map node and a boxed Long.
+ * <p>
+ * Methods are synchronized, like the original single-lock LRUCache.
+ */
+public class LongLRUCache<V> {
+    private static final int NIL = -1;
+    // The largest capacity whose table still fits in 2^30 positions; one more would need 2^31
+    static final int MAX_CAPACITY = (1 << 30) / 4 * 3 - 1;
+
+    private final int capacity;
+    // Hash table: key and entry slot per position, NIL slot marks an empty position
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+    private final int tableMask;
+    // Entry slots: value, recency links and the entry's current table position
+    private final Object[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] tablePositions;
+    private int head = NIL;
+    private int tail = NIL;
+    private int freeHead;
+    private int size;
+
+    public LongLRUCache(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.capacity = capacity;
+        int tableSize = tableSizeFor(capacity);
+        this.tableKeys = new long[tableSize];
+        this.tableSlots = new int[tableSize];
+        Arrays.fill(tableSlots, NIL);
+        this.tableMask = tableSize - 1;
+        this.values = new Object[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.tablePositions = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NIL;
+        }
+        this.freeHead = 0;
+    }
+
+    // Load factor of at most 0.75 keeps linear probe runs short
+    static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, (int) (capacity * 4L / 3 + 1)) - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V get(long key) {
+        int position = find(key);
+        if (position == NIL) return null;
+        int slot = tableSlots[position];
+        moveToFront(slot);
+        return (V) values[slot];
+    }
+
+    public synchronized void put(long key, V value) {
+        int position = find(key);
+        if (position != NIL) {
+            int slot = tableSlots[position];
+            values[slot] = value;
+            moveToFront(slot);
+            return;
+        }
+        if (size == capacity) {
+            removeSlot(tail);
+        }
+        int slot = freeHead;
+        freeHead = next[slot];
+        values[slot] = value;
+        addFirst(slot);
+        insert(key, slot);
+        size++;
+    }
+
+    public synchronized void remove(long key) {
+        int position = find(key);
+        if (position != NIL) {
+            removeSlot(tableSlots[position]);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long memoryFootprintBytes() {
+        return 12L * tableKeys.length + 16L * capacity;
+    }
+
+    private int find(long key) {
+        int position = home(key);
+        while (tableSlots[position] != NIL) {
+            if (tableKeys[position] == key) return position;
+            position = (position + 1) & tableMask;
+        }
+        return NIL;
+    }
+
+    private void insert(long key, int slot) {
+        int position = home(key);
+        while (tableSlots[position] != NIL) {
+            position = (position + 1) & tableMask;
+        }
+        tableKeys[position] = key;
+        tableSlots[position] = slot;
+        tablePositions[slot] = position;
+    }
+
+    private void removeSlot(int slot) {
+        deleteAt(tablePositions[slot]);
+        unlink(slot);
+        values[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    // Backward-shift deletion: later entries of the probe run move up so no tombstone is needed
+    private void deleteAt(int hole) {
+        int position = hole;
+        while (true) {
+            position = (position + 1) & tableMask;
+            if (tableSlots[position] == NIL) break;
+            int home = home(tableKeys[position]);
+            // The entry may fill the hole only if its home is not in the cyclic range (hole, position]
+            boolean movable = hole <= position
+                    ? home <= hole || home > position
+                    : home <= hole && home > position;
+            if (movable) {
+                tableKeys[hole] = tableKeys[position];
+                tableSlots[hole] = tableSlots[position];
+                tablePositions[tableSlots[hole]] = hole;
+                hole = position;
+            }
+        }
+        tableSlots[hole] = NIL;
+    }
+
+    private void addFirst(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) prev[head] = slot;
+        head = slot;
+        if (tail == NIL) tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before != NIL) next[before] = after;
+        else head = after;
+        if (after != NIL) prev[after] = before;
+        else tail = before;
+    }
+
+    private void moveToFront(int slot) {
+        if (slot == head) return;
+        unlink(slot);
+        addFirst(slot);
+    }
+
+    // Murmur3 finalizer, so sequential IDs spread over the whole table
+    private int home(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & tableMask;
+    }
+}
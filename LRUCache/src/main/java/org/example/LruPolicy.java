@@ -0,0 +1,35 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * The original policy: a single recency list, moved to the front on every access and evicted from the back.
+ */
+final class LruPolicy<K, V> implements EvictionPolicy<K, V> {
+    private final DoubleLinkedList<K, V> list = new DoubleLinkedList<>();
+
+    @Override
+    public void onInsert(Node<K, V> node) {
+        list.addFirst(node);
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        if (list.contains(node)) list.moveToFront(node);
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        if (list.contains(node)) list.remove(node);
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        return list.removeLast();
+    }
+
+    @Override
+    public void forEachHottest(Consumer<? super Node<K, V>> action) {
+        list.forEach(action);
+    }
+}
@@ -1,11 +1,38 @@
 package org.example;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 public class Node<K,V> {
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<Node> REFRESHING = AtomicIntegerFieldUpdater.newUpdater(Node.class, "refreshing");
+
     K key;
-    V value;
+    volatile V value;
     Node<K,V> next, previous;
+    // Which of the policy's lists holds the node, for policies that keep more than one
+    byte queue;
+    // Reference bit or small saturating hit counter for FIFO-based policies
+    byte frequency;
+    // Cost of the entry against the cache's capacity; 1 unless the cache has a weigher
+    int weight = 1;
+    // Expiration: the effective deadline, the deadline set by the last write, and the timer wheel bucket links
+    volatile long expiresAt = TimerWheel.NEVER;
+    long writeDeadline = TimerWheel.NEVER;
+    boolean fixedExpiry;
+    Node<K,V> timerNext, timerPrevious;
+    // Refresh-after-write: time of the last write, and 1 while a background reload is running
+    volatile long writeTime;
+    volatile int refreshing;
     public Node(K key, V value) {
         this.key = key;
         this.value = value;
     }
+
+    public K getKey() {
+        return key;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
 }
@@ -0,0 +1,299 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LRU cache whose values live outside the Java heap, in direct or memory-mapped {@link ByteBuffer} slabs, so
+ * gigabytes of serialized data add nothing to GC work. Only the key index stays on heap: one small entry per key
+ * with the packed slab/offset address of its chunk.
+ * <p>
+ * Memory is handed out by a slab allocator in the style of memcached. Chunk sizes grow by 25% from 64 bytes up to
+ * the slab size; a slab is assigned to one size class the first time that class runs out of chunks, and freed
+ * chunks go onto their class's free list, threaded through the chunks themselves. Each class keeps its own LRU
+ * list, so when the memory budget is used up a write evicts the least recently used entries of its own size class,
+ * which are exactly the ones whose chunks it can reuse. A class that got no slab before the budget ran out takes
+ * one over from the class holding the most, whose entries in that slab are evicted. Values larger than a slab are
+ * not cached.
+ * <p>
+ * Methods are synchronized, like the original single-lock LRUCache.
+ */
+public class OffHeapLRUCache<K, V> implements AutoCloseable {
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+    // Fewer slabs than this would leave most size classes fighting over one or two slabs
+    static final int MIN_SLABS = 4;
+    private static final int MIN_CHUNK = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+    // Each chunk starts with the encoded length; free chunks reuse the first 8 bytes as the free-list link
+    private static final int HEADER = Integer.BYTES;
+    private static final long NO_CHUNK = -1;
+
+    private final Codec<V> codec;
+    private final int slabSize;
+    private final ByteBuffer[] slabs;
+    private final int[] slabClasses;
+    private int slabCount;
+    private final int[] chunkSizes;
+    private final int[] classSlabCounts;
+    private final long[] freeChunks;
+    private final Entry<K>[] lruHeads;
+    private final Map<K, Entry<K>> index = new HashMap<>();
+    private final FileChannel channel;
+
+    /** Values are kept in direct buffers allocated from native memory, up to {@code capacityBytes} in total. */
+    public static <K, V> OffHeapLRUCache<K, V> direct(long capacityBytes, Codec<V> codec) {
+        return new OffHeapLRUCache<>(capacityBytes, DEFAULT_SLAB_SIZE, codec, null);
+    }
+
+    /** Values are kept in slabs mapped from {@code file}, which grows to at most {@code capacityBytes}. */
+    public static <K, V> OffHeapLRUCache<K, V> mapped(Path file, long capacityBytes, Codec<V> codec)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new OffHeapLRUCache<>(capacityBytes, DEFAULT_SLAB_SIZE, codec, channel);
+        } catch (RuntimeException | Error e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    OffHeapLRUCache(long capacityBytes, int slabSize, Codec<V> codec, FileChannel channel) {
+        if (slabSize < MIN_CHUNK || capacityBytes / slabSize < MIN_SLABS) {
+            throw new IllegalArgumentException("Capacity must hold at least " + MIN_SLABS + " slabs of at least "
+                    + MIN_CHUNK + " bytes");
+        }
+        this.codec = codec;
+        this.slabSize = slabSize;
+        this.channel = channel;
+        int maxSlabs = (int) Math.min(Integer.MAX_VALUE, capacityBytes / slabSize);
+        this.slabs = new ByteBuffer[maxSlabs];
+        this.slabClasses = new int[maxSlabs];
+
+        int classes = 0;
+        int[] sizes = new int[64];
+        for (double size = MIN_CHUNK; size < slabSize && classes < sizes.length - 1; size *= GROWTH_FACTOR) {
+            sizes[classes++] = ((int) size + 7) & ~7;
+        }
+        sizes[classes++] = slabSize;
+        this.chunkSizes = Arrays.copyOf(sizes, classes);
+        this.classSlabCounts = new int[classes];
+        this.freeChunks = new long[classes];
+        Arrays.fill(freeChunks, NO_CHUNK);
+        this.lruHeads = newEntryArray(classes);
+        for (int i = 0; i < classes; i++) {
+            Entry<K> sentinel = new Entry<>(null);
+            sentinel.next = sentinel;
+            sentinel.previous = sentinel;
+            lruHeads[i] = sentinel;
+        }
+    }
+
+    public synchronized V get(K key) {
+        Entry<K> entry = index.get(key);
+        if (entry == null) return null;
+        int slab = slabOf(entry.address);
+        moveToFront(entry, slabClasses[slab]);
+        ByteBuffer view = view(entry.address);
+        int length = view.getInt();
+        view.limit(view.position() + length);
+        return codec.read(view);
+    }
+
+    // The old value stays mapped until the new one is written; making room may evict it first like any other entry
+    public synchronized void put(K key, V value) {
+        int length = codec.sizeOf(value);
+        int sizeClass = sizeClassFor(HEADER + length);
+        long address = sizeClass < 0 ? NO_CHUNK : allocate(sizeClass);
+        if (address == NO_CHUNK) {
+            // Too large to cache: the old value would be stale, so it goes too
+            remove(key);
+            return;
+        }
+        try {
+            ByteBuffer view = view(address);
+            view.putInt(length);
+            view.limit(view.position() + length);
+            codec.write(value, view);
+        } catch (RuntimeException | Error e) {
+            pushFree(sizeClass, address);
+            throw e;
+        }
+
+        Entry<K> entry = new Entry<>(key);
+        entry.address = address;
+        Entry<K> existing = index.put(key, entry);
+        if (existing != null) {
+            release(existing);
+        }
+        linkFirst(entry, sizeClass);
+    }
+
+    public synchronized void remove(K key) {
+        Entry<K> entry = index.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    // Native or mapped memory claimed so far; slabs move between size classes but are never returned
+    public synchronized long offHeapBytes() {
+        return (long) slabCount * slabSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private long allocate(int sizeClass) {
+        if (freeChunks[sizeClass] == NO_CHUNK) {
+            Entry<K> sentinel = lruHeads[sizeClass];
+            if (slabCount < slabs.length) {
+                slabs[slabCount] = newSlab(slabCount);
+                carveSlab(sizeClass, slabCount++);
+            } else if (sentinel.previous != sentinel) {
+                Entry<K> victim = sentinel.previous;
+                index.remove(victim.key);
+                release(victim);
+            } else {
+                // No entries and no free chunks means the class holds no slab at all
+                reassignSlab(sizeClass);
+            }
+        }
+        long address = freeChunks[sizeClass];
+        if (address == NO_CHUNK) return NO_CHUNK;
+        freeChunks[sizeClass] = slabs[slabOf(address)].getLong(offsetOf(address));
+        return address;
+    }
+
+    // Takes the slab under the coldest entry of the class with the most slabs, evicting everything stored in it
+    private void reassignSlab(int sizeClass) {
+        int donor = -1;
+        for (int i = 0; i < classSlabCounts.length; i++) {
+            if (classSlabCounts[i] > 0 && (donor < 0 || classSlabCounts[i] > classSlabCounts[donor])) donor = i;
+        }
+        if (donor < 0) return;
+        Entry<K> sentinel = lruHeads[donor];
+        int slab = slabOf(sentinel.previous != sentinel ? sentinel.previous.address : freeChunks[donor]);
+        for (Entry<K> entry = sentinel.next; entry != sentinel; entry = entry.next) {
+            if (slabOf(entry.address) == slab) {
+                index.remove(entry.key);
+                entry.previous.next = entry.next;
+                entry.next.previous = entry.previous;
+            }
+        }
+        long chunk = freeChunks[donor];
+        freeChunks[donor] = NO_CHUNK;
+        while (chunk != NO_CHUNK) {
+            long next = slabs[slabOf(chunk)].getLong(offsetOf(chunk));
+            if (slabOf(chunk) != slab) pushFree(donor, chunk);
+            chunk = next;
+        }
+        classSlabCounts[donor]--;
+        carveSlab(sizeClass, slab);
+    }
+
+    private void carveSlab(int sizeClass, int slab) {
+        slabClasses[slab] = sizeClass;
+        classSlabCounts[sizeClass]++;
+        int chunkSize = chunkSizes[sizeClass];
+        for (int offset = (slabSize / chunkSize - 1) * chunkSize; offset >= 0; offset -= chunkSize) {
+            pushFree(sizeClass, address(slab, offset));
+        }
+    }
+
+    private ByteBuffer newSlab(int slab) {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect(slabSize);
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) slab * slabSize, slabSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map slab " + slab, e);
+        }
+    }
+
+    private void release(Entry<K> entry) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        pushFree(slabClasses[slabOf(entry.address)], entry.address);
+    }
+
+    private void pushFree(int sizeClass, long address) {
+        slabs[slabOf(address)].putLong(offsetOf(address), freeChunks[sizeClass]);
+        freeChunks[sizeClass] = address;
+    }
+
+    private int sizeClassFor(int bytes) {
+        for (int i = 0; i < chunkSizes.length; i++) {
+            if (chunkSizes[i] >= bytes) return i;
+        }
+        return -1;
+    }
+
+    private ByteBuffer view(long address) {
+        ByteBuffer view = slabs[slabOf(address)].duplicate();
+        view.position(offsetOf(address));
+        return view;
+    }
+
+    private void linkFirst(Entry<K> entry, int sizeClass) {
+        Entry<K> sentinel = lruHeads[sizeClass];
+        entry.next = sentinel.next;
+        entry.previous = sentinel;
+        sentinel.next.previous = entry;
+        sentinel.next = entry;
+    }
+
+    private void moveToFront(Entry<K> entry, int sizeClass) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        linkFirst(entry, sizeClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Entry<K>[] newEntryArray(int length) {
+        return (Entry<K>[]) new Entry<?>[length];
+    }
+
+    private static long address(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    // On-heap index entry: the key, its chunk address and its place in the size class's LRU list
+    private static final class Entry<K> {
+        final K key;
+        long address;
+        Entry<K> next, previous;
+
+        Entry(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped ring buffers of recent hits. Readers claim a slot with a single CAS on their stripe's write
+ * counter and never block; when a stripe is full the hit is simply dropped, which only makes the LRU order a
+ * little less exact. The owner drains the buffers while holding its lock, so the read counters have a single
+ * writer and are only published with lazySet.
+ */
+final class ReadBuffer<K, V> {
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    // Pending hits at which a reader tries to drain instead of waiting for the next write
+    static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+
+    private final int stripeMask;
+    private final AtomicReferenceArray<Node<K, V>> slots;
+    private final AtomicLongArray writeCounters;
+    private final AtomicLongArray readCounters;
+
+    ReadBuffer(int stripes) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        this.stripeMask = count - 1;
+        this.slots = new AtomicReferenceArray<>(count * STRIPE_SIZE);
+        // Counters of one stripe sit 8 longs apart so neighbouring stripes do not share a cache line
+        this.writeCounters = new AtomicLongArray(count * 8);
+        this.readCounters = new AtomicLongArray(count * 8);
+    }
+
+    /** Records a hit and returns true when the caller should try to drain. */
+    boolean offer(Node<K, V> node) {
+        int stripe = stripeFor(Thread.currentThread());
+        int counter = stripe * 8;
+        long tail = writeCounters.get(counter);
+        long pending = tail - readCounters.get(counter);
+        if (pending >= STRIPE_SIZE) {
+            return true;
+        }
+        if (writeCounters.compareAndSet(counter, tail, tail + 1)) {
+            slots.lazySet(stripe * STRIPE_SIZE + (int) (tail & STRIPE_MASK), node);
+        }
+        return pending + 1 >= DRAIN_THRESHOLD;
+    }
+
+    /** Replays buffered hits in arrival order per stripe; must be called while holding the owner's lock. */
+    void drainTo(Consumer<Node<K, V>> consumer) {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int counter = stripe * 8;
+            long head = readCounters.get(counter);
+            long tail = writeCounters.get(counter);
+            while (head < tail) {
+                int slot = stripe * STRIPE_SIZE + (int) (head & STRIPE_MASK);
+                Node<K, V> node = slots.get(slot);
+                // The writer claimed the slot but has not published the node yet; pick it up next time
+                if (node == null) break;
+                slots.lazySet(slot, null);
+                consumer.accept(node);
+                head++;
+            }
+            readCounters.lazySet(counter, head);
+        }
+    }
+
+    private int stripeFor(Thread thread) {
+        long id = thread.getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+}
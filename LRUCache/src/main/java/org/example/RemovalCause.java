@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Why an entry left an {@link LRUCache}.
+ */
+public enum RemovalCause {
+    /** Removed by a call to remove. */
+    EXPLICIT,
+    /** Its value was overwritten by a put or a refresh. */
+    REPLACED,
+    /** Evicted to stay within the capacity or maximum weight, or refused for being too heavy. */
+    SIZE,
+    /** Its expire-after-write, expire-after-access or per-entry TTL passed. */
+    EXPIRED;
+
+    public boolean wasEvicted() {
+        return this == SIZE || this == EXPIRED;
+    }
+}
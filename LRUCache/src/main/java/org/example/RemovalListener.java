@@ -0,0 +1,10 @@
+package org.example;
+
+/**
+ * Notified when an entry leaves an {@link LRUCache} or has its value replaced. Runs on the cache's listener
+ * executor, never on the thread whose write caused the removal, so a slow listener does not hold a segment lock.
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+    void onRemoval(K key, V value, RemovalCause cause);
+}
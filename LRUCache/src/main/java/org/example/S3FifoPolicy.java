@@ -0,0 +1,117 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * S3-FIFO: three FIFO queues and no per-hit reordering. New entries go to a small queue (10% of the capacity);
+ * when they reach its tail they move to the main queue if they were hit while there, and are otherwise evicted,
+ * leaving their key in a ghost queue. A key that comes back while still a ghost skips the small queue. The main
+ * queue evicts from its tail, reinserting entries that were hit and decrementing their 2-bit frequency, so most
+ * one-hit wonders leave through the small queue quickly.
+ */
+final class S3FifoPolicy<K, V> implements EvictionPolicy<K, V> {
+    private static final byte SMALL = 1;
+    private static final byte MAIN = 2;
+    private static final int MAX_FREQUENCY = 3;
+
+    private final DoubleLinkedList<K, V> small = new DoubleLinkedList<>();
+    private final DoubleLinkedList<K, V> main = new DoubleLinkedList<>();
+    // Keys only, in eviction order; bounded to the main queue's share of the capacity
+    private final LinkedHashSet<Object> ghost = new LinkedHashSet<>();
+    private final long maxSmall;
+    private final int maxGhost;
+    private long smallSize;
+    private long mainSize;
+
+    S3FifoPolicy(long capacity) {
+        this.maxSmall = Math.max(1, capacity / 10);
+        this.maxGhost = (int) Math.min(Integer.MAX_VALUE, Math.max(1, capacity - maxSmall));
+    }
+
+    @Override
+    public void onInsert(Node<K, V> node) {
+        node.frequency = 0;
+        if (ghost.remove(node.key)) {
+            addToMain(node);
+        } else {
+            node.queue = SMALL;
+            small.addFirst(node);
+            smallSize += node.weight;
+        }
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        if (node.frequency < MAX_FREQUENCY) node.frequency++;
+    }
+
+    @Override
+    public void onUpdate(Node<K, V> node, int weightDelta) {
+        if (node.previous == null) return;
+        if (node.queue == SMALL) smallSize += weightDelta;
+        else mainSize += weightDelta;
+        onAccess(node);
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        if (node.previous == null) return;
+        if (node.queue == SMALL) {
+            small.remove(node);
+            smallSize -= node.weight;
+        } else {
+            main.remove(node);
+            mainSize -= node.weight;
+        }
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        while (smallSize + mainSize > 0) {
+            if (smallSize > maxSmall || mainSize == 0) {
+                Node<K, V> tail = small.peekLast();
+                onRemove(tail);
+                if (tail.frequency > 0) {
+                    tail.frequency = 0;
+                    addToMain(tail);
+                    continue;
+                }
+                remember(tail.key);
+                return tail;
+            }
+            Node<K, V> tail = main.peekLast();
+            if (tail.frequency > 0) {
+                tail.frequency--;
+                main.moveToFront(tail);
+                continue;
+            }
+            onRemove(tail);
+            return tail;
+        }
+        return null;
+    }
+
+    // Entries that made it to the main queue have been hit before; the small queue holds the unproven ones
+    @Override
+    public void forEachHottest(Consumer<? super Node<K, V>> action) {
+        main.forEach(action);
+        small.forEach(action);
+    }
+
+    private void addToMain(Node<K, V> node) {
+        node.queue = MAIN;
+        main.addFirst(node);
+        mainSize += node.weight;
+    }
+
+    private void remember(Object key) {
+        ghost.add(key);
+        if (ghost.size() > maxGhost) {
+            Iterator<Object> oldest = ghost.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One stripe of an {@link LRUCache}: its own eviction policy, timer wheel, entry count, weight and lock. Keys are hashed to a fixed
+ * segment, so operations on different segments never contend with each other.
+ */
+// Serializable only through ReentrantLock; segments are never serialized
+@SuppressWarnings("serial")
+final class Segment<K, V> extends ReentrantLock {
+    final EvictionPolicy<K, V> policy;
+    final long capacity;
+    final ReadBuffer<K, V> readBuffer;
+    final TimerWheel<K, V> timerWheel;
+    int size;
+    long weight;
+
+    Segment(long capacity, EvictionPolicy<K, V> policy, ReadBuffer<K, V> readBuffer, TimerWheel<K, V> timerWheel) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.readBuffer = readBuffer;
+        this.timerWheel = timerWheel;
+    }
+
+    // Replays buffered hits into the policy; caller holds the lock
+    void drainReadBuffer() {
+        if (readBuffer == null) return;
+        readBuffer.drainTo(policy::onAccess);
+    }
+}
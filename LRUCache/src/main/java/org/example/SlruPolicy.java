@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * Segmented LRU: new entries enter a probation list and move to a protected list (80% of the capacity) when hit
+ * again; protected overflow is demoted back to the head of probation. Eviction takes the probation tail, so an
+ * entry seen only once never pushes out one that has proven itself. Also serves as the main area of
+ * {@link WindowTinyLfuPolicy}.
+ */
+final class SlruPolicy<K, V> implements EvictionPolicy<K, V> {
+    static final byte PROBATION = 1;
+    static final byte PROTECTED = 2;
+
+    private final DoubleLinkedList<K, V> probation = new DoubleLinkedList<>();
+    private final DoubleLinkedList<K, V> protectedList = new DoubleLinkedList<>();
+    // Sizes are in weight units, which are entry counts unless the cache has a weigher
+    private final long maxProtected;
+    private long probationSize;
+    private long protectedSize;
+
+    SlruPolicy(long capacity) {
+        this.maxProtected = (long) (capacity * 0.8);
+    }
+
+    @Override
+    public void onInsert(Node<K, V> node) {
+        node.queue = PROBATION;
+        probation.addFirst(node);
+        probationSize += node.weight;
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        // An unlinked node was removed after its hit was buffered
+        if (node.previous == null) return;
+        if (node.queue == PROTECTED) {
+            protectedList.moveToFront(node);
+            return;
+        }
+        probation.remove(node);
+        probationSize -= node.weight;
+        node.queue = PROTECTED;
+        protectedList.addFirst(node);
+        protectedSize += node.weight;
+        while (protectedSize > maxProtected) {
+            Node<K, V> demoted = protectedList.removeLast();
+            protectedSize -= demoted.weight;
+            onInsert(demoted);
+        }
+    }
+
+    @Override
+    public void onUpdate(Node<K, V> node, int weightDelta) {
+        if (node.previous == null) return;
+        if (node.queue == PROTECTED) protectedSize += weightDelta;
+        else probationSize += weightDelta;
+        onAccess(node);
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        if (node.previous == null) return;
+        if (node.queue == PROTECTED) {
+            protectedList.remove(node);
+            protectedSize -= node.weight;
+        } else {
+            probation.remove(node);
+            probationSize -= node.weight;
+        }
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        Node<K, V> victim = peekVictim();
+        if (victim != null) onRemove(victim);
+        return victim;
+    }
+
+    @Override
+    public void forEachHottest(Consumer<? super Node<K, V>> action) {
+        protectedList.forEach(action);
+        probation.forEach(action);
+    }
+
+    Node<K, V> peekVictim() {
+        return probationSize > 0 ? probation.peekLast() : protectedList.peekLast();
+    }
+
+    long weight() {
+        return probationSize + protectedSize;
+    }
+}
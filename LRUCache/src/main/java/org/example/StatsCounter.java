@@ -0,0 +1,57 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters an {@link LRUCache} updates as it works. Every counter is a LongAdder, so concurrent readers on
+ * different segments never contend on a shared cache line. Load times land in power-of-two nanosecond buckets;
+ * loads are rare and slow next to lookups, so each one is timed.
+ */
+final class StatsCounter {
+    static final int LATENCY_BUCKETS = 48;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder[] loadLatency = new LongAdder[LATENCY_BUCKETS];
+
+    StatsCounter() {
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            loadLatency[i] = new LongAdder();
+        }
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction(int weight) {
+        evictions.increment();
+        evictionWeight.add(weight);
+    }
+
+    // A loader that returns null counts as a failure, as nothing could be cached
+    void recordLoad(long nanos, boolean success) {
+        (success ? loadSuccesses : loadFailures).increment();
+        totalLoadNanos.add(nanos);
+        int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+        loadLatency[bucket].increment();
+    }
+
+    CacheStats snapshot() {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = loadLatency[i].sum();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), evictionWeight.sum(),
+                loadSuccesses.sum(), loadFailures.sum(), totalLoadNanos.sum(), histogram);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example;
+
+/**
+ * Time source for expiration, in nanoseconds. Only differences between readings are meaningful.
+ */
+@FunctionalInterface
+public interface Ticker {
+    long read();
+
+    // Offset so readings start near zero and the timer wheel's bucket arithmetic never sees negative times
+    static Ticker system() {
+        long origin = System.nanoTime();
+        return () -> System.nanoTime() - origin;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel for entry expiration. Each level is a ring of buckets whose span grows by a power of two
+ * (about 1s, 1m, 1h, 1d and a final overflow bucket), so scheduling is O(1) and advancing only visits the buckets
+ * whose time has passed. Entries in a coarse bucket are re-filed into finer ones when their bucket comes due.
+ * <p>
+ * Expiry times may move later without the wheel being told (an access extending an entry under buffered reads);
+ * such entries are simply rescheduled when their old bucket fires. Not thread-safe: each segment owns one and only
+ * touches it under the segment lock.
+ */
+final class TimerWheel<K, V> {
+    static final long NEVER = Long.MAX_VALUE;
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            1L << 30,  // 1.07s
+            1L << 36,  // 1.14m
+            1L << 42,  // 1.22h
+            1L << 46,  // 19.5h
+            1L << 48,  // 3.26d
+    };
+    private static final int[] SHIFT = {30, 36, 42, 46, 48};
+
+    private final Node<K, V>[][] wheel;
+    private long nanos;
+
+    TimerWheel(long now) {
+        this.nanos = now;
+        this.wheel = newLevels(BUCKETS.length);
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = newBuckets(BUCKETS[i]);
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                Node<K, V> sentinel = new Node<>(null, null);
+                sentinel.timerNext = sentinel;
+                sentinel.timerPrevious = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    void schedule(Node<K, V> node) {
+        if (node.timerPrevious != null) unlink(node);
+        if (node.expiresAt == NEVER) return;
+        Node<K, V> sentinel = bucketFor(node.expiresAt);
+        node.timerNext = sentinel;
+        node.timerPrevious = sentinel.timerPrevious;
+        sentinel.timerPrevious.timerNext = node;
+        sentinel.timerPrevious = node;
+    }
+
+    void deschedule(Node<K, V> node) {
+        if (node.timerPrevious != null) unlink(node);
+    }
+
+    /** Moves the wheel to {@code now}, handing every entry that has expired by then to {@code onExpired}. */
+    void advance(long now, Consumer<Node<K, V>> onExpired) {
+        long previous = nanos;
+        if (now - previous <= 0) return;
+        nanos = now;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previous >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            if (currentTicks == previousTicks) break;
+            expire(i, previousTicks, currentTicks - previousTicks, now, onExpired);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, long now, Consumer<Node<K, V>> onExpired) {
+        Node<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        for (int i = 0; i < steps; i++) {
+            Node<K, V> sentinel = buckets[(int) ((previousTicks + i) & mask)];
+            Node<K, V> node = sentinel.timerNext;
+            sentinel.timerNext = sentinel;
+            sentinel.timerPrevious = sentinel;
+            while (node != sentinel) {
+                Node<K, V> next = node.timerNext;
+                node.timerNext = null;
+                node.timerPrevious = null;
+                if (node.expiresAt - now <= 0) {
+                    onExpired.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private Node<K, V> bucketFor(long time) {
+        long duration = Math.max(0, time - nanos);
+        for (int i = 0; i < SHIFT.length - 1; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                return wheel[i][(int) (ticks & (BUCKETS[i] - 1))];
+            }
+        }
+        return wheel[SHIFT.length - 1][0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[][] newLevels(int length) {
+        return (Node<K, V>[][]) new Node<?, ?>[length][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newBuckets(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        node.timerPrevious.timerNext = node.timerNext;
+        node.timerNext.timerPrevious = node.timerPrevious;
+        node.timerNext = null;
+        node.timerPrevious = null;
+    }
+}
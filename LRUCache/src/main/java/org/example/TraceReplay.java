@@ -0,0 +1,108 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Replays an access trace against every eviction policy and reports hit ratio and throughput, so the cheapest
+ * policy that still meets a hit-rate target can be picked. Each request is a get, followed by a put on a miss.
+ * <p>
+ * Usage: {@code TraceReplay [trace-file] [capacity ...]}. Each line of the trace is one request and its first
+ * comma- or whitespace-separated field is the key. Without a file, a synthetic trace of Zipfian traffic over
+ * 100k keys interrupted by one-off scans is used. Capacities default to 1%, 5% and 10% of the distinct keys.
+ */
+public class TraceReplay {
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        Integer[] trace = args.length > 0 ? readTrace(Path.of(args[0])) : syntheticTrace();
+        int distinct = 0;
+        for (Integer key : trace) distinct = Math.max(distinct, key + 1);
+        List<Integer> capacities = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) capacities.add(Integer.parseInt(args[i]));
+        if (capacities.isEmpty()) {
+            capacities.add(Math.max(1, distinct / 100));
+            capacities.add(Math.max(1, distinct / 20));
+            capacities.add(Math.max(1, distinct / 10));
+        }
+
+        Map<String, LongFunction<EvictionPolicy<Integer, Integer>>> policies = new LinkedHashMap<>();
+        policies.put("lru", EvictionPolicy::lru);
+        policies.put("slru", EvictionPolicy::slru);
+        policies.put("clock", EvictionPolicy::clock);
+        policies.put("s3-fifo", EvictionPolicy::s3Fifo);
+        policies.put("w-tinylfu", EvictionPolicy::windowTinyLfu);
+
+        System.out.printf("%d requests, %d distinct keys%n", trace.length, distinct);
+        for (int capacity : capacities) {
+            System.out.printf("%ncapacity %d%n", capacity);
+            System.out.printf("%-10s %10s %12s%n", "policy", "hit ratio", "Mreq/s");
+            for (Map.Entry<String, LongFunction<EvictionPolicy<Integer, Integer>>> entry : policies.entrySet()) {
+                double hitRatio = 0;
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    LRUCache<Integer, Integer> cache = LRUCache.<Integer, Integer>builder()
+                            .capacity(capacity)
+                            .evictionPolicy(entry.getValue())
+                            .build();
+                    long start = System.nanoTime();
+                    long hits = replay(cache, trace);
+                    best = Math.min(best, System.nanoTime() - start);
+                    hitRatio = (double) hits / trace.length;
+                }
+                System.out.printf("%-10s %10.4f %12.2f%n", entry.getKey(), hitRatio, trace.length * 1e3 / best);
+            }
+        }
+    }
+
+    static long replay(LRUCache<Integer, Integer> cache, Integer[] trace) {
+        long hits = 0;
+        for (Integer key : trace) {
+            if (cache.get(key) != null) hits++;
+            else cache.put(key, key);
+        }
+        return hits;
+    }
+
+    // Keys are interned to dense ids, so replay cost is the cache's and not String hashing
+    static Integer[] readTrace(Path file) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<Integer> trace = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(file)) {
+            lines.forEach(line -> {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) return;
+                String key = trimmed.split("[,\\s]+", 2)[0];
+                trace.add(ids.computeIfAbsent(key, k -> ids.size()));
+            });
+        }
+        return trace.toArray(new Integer[0]);
+    }
+
+    // 2M requests: Zipf(0.99) over 100k keys, with a scan of 20k never-repeated keys every 200k requests
+    static Integer[] syntheticTrace() {
+        int keys = 100_000;
+        ZipfianGenerator zipf = new ZipfianGenerator(keys);
+        SplittableRandom random = new SplittableRandom(42);
+        Integer[] trace = new Integer[2_000_000];
+        int scanKey = keys;
+        int i = 0;
+        while (i < trace.length) {
+            if (i % 200_000 == 100_000) {
+                for (int s = 0; s < 20_000 && i < trace.length; s++) trace[i++] = scanKey++;
+            } else {
+                trace[i++] = (int) zipf.sample(random.nextDouble());
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+/**
+ * Computes how much of a weight-bounded {@link LRUCache}'s capacity an entry uses, for example its size in bytes.
+ * Must be deterministic: the same key and value always weigh the same. The cache weighs an entry on every write,
+ * so replacing a value recomputes its weight, but it never re-weighs a value that is mutated in place.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    int weigh(K key, V value);
+}
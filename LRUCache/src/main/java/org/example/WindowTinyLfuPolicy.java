@@ -0,0 +1,102 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * W-TinyLFU: new entries land in a small window LRU (1% of the capacity). When the window overflows, its LRU entry
+ * becomes a candidate for the main area, a {@link SlruPolicy} with probation and protected (80%) lists. The
+ * candidate only replaces the probation victim if the frequency sketch has seen it more often, so a one-off scan
+ * churns through the window and is rejected there instead of flushing the frequently used main entries.
+ */
+final class WindowTinyLfuPolicy<K, V> implements EvictionPolicy<K, V> {
+    // Distinct from the SLRU queue markers so a node's list is always known
+    private static final byte WINDOW = 0;
+    // A weighted capacity says little about the entry count; the sketch is sized for at most this many entries
+    private static final int MAX_SKETCH_CAPACITY = 1 << 20;
+
+    private final DoubleLinkedList<K, V> window = new DoubleLinkedList<>();
+    private final SlruPolicy<K, V> main;
+    private final FrequencySketch sketch;
+    // Region sizes are in weight units, which are entry counts unless the cache has a weigher
+    private final long maxWindow;
+    private final long maxMain;
+    private long windowSize;
+
+    WindowTinyLfuPolicy(long capacity) {
+        this.sketch = new FrequencySketch((int) Math.min(capacity, MAX_SKETCH_CAPACITY));
+        this.maxWindow = Math.max(1, capacity / 100);
+        this.maxMain = Math.max(0, capacity - maxWindow);
+        this.main = new SlruPolicy<>(maxMain);
+    }
+
+    @Override
+    public void onInsert(Node<K, V> node) {
+        sketch.increment(node.key);
+        node.queue = WINDOW;
+        window.addFirst(node);
+        windowSize += node.weight;
+        // While the main area has room, window overflow moves there without competing
+        while (windowSize > maxWindow && main.weight() < maxMain) {
+            Node<K, V> candidate = window.removeLast();
+            windowSize -= candidate.weight;
+            main.onInsert(candidate);
+        }
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        // An unlinked node was removed after its hit was buffered
+        if (node.previous == null) return;
+        sketch.increment(node.key);
+        if (node.queue == WINDOW) window.moveToFront(node);
+        else main.onAccess(node);
+    }
+
+    @Override
+    public void onUpdate(Node<K, V> node, int weightDelta) {
+        if (node.previous == null) return;
+        if (node.queue == WINDOW) {
+            windowSize += weightDelta;
+            onAccess(node);
+        } else {
+            sketch.increment(node.key);
+            main.onUpdate(node, weightDelta);
+        }
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        if (node.previous == null) return;
+        if (node.queue == WINDOW) {
+            window.remove(node);
+            windowSize -= node.weight;
+        } else {
+            main.onRemove(node);
+        }
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        Node<K, V> candidate = windowSize > maxWindow || main.weight() == 0 ? window.peekLast() : null;
+        Node<K, V> victim = main.peekVictim();
+        if (candidate != null && victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            // Admitted: the candidate takes the victim's place in the main area
+            onRemove(candidate);
+            main.onRemove(victim);
+            main.onInsert(candidate);
+            return victim;
+        }
+        if (candidate != null) {
+            onRemove(candidate);
+            return candidate;
+        }
+        return main.evict();
+    }
+
+    // The window holds the newest, not yet admitted entries, so it ranks below the whole main area
+    @Override
+    public void forEachHottest(Consumer<? super Node<K, V>> action) {
+        main.forEachHottest(action);
+        window.forEach(action);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+/**
+ * Zipf-distributed ranks in [0, items) after Gray et al., "Quickly Generating Billion-Record Synthetic Databases",
+ * as used by YCSB. Rank 0 is the most popular. The zeta constant is computed once in O(items); sampling is O(1) and
+ * takes the uniform draw from the caller, so one generator can be shared by threads with their own random sources.
+ */
+public final class ZipfianGenerator {
+    public static final double DEFAULT_SKEW = 0.99;
+
+    private final long items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    public ZipfianGenerator(long items) {
+        this(items, DEFAULT_SKEW);
+    }
+
+    public ZipfianGenerator(long items, double theta) {
+        if (items < 2 || theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Need at least 2 items and a skew in (0, 1)");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(items, theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    /** Maps a uniform draw in [0, 1) to a rank. */
+    public long sample(double uniform) {
+        double uz = uniform * zetaN;
+        if (uz < 1.0) return 0;
+        if (uz < 1.0 + Math.pow(0.5, theta)) return 1;
+        return Math.min(items - 1, (long) (items * Math.pow(eta * uniform - eta + 1, alpha)));
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
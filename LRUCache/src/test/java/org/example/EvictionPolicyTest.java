@@ -0,0 +1,121 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvictionPolicyTest {
+    private static final int CAPACITY = 100;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"lru", "slru", "clock", "s3Fifo", "windowTinyLfu"})
+    void holdsExactlyTheLiveEntries(String name) {
+        EvictionPolicy<Integer, Integer> policy = factory(name).apply(CAPACITY);
+        Map<Integer, Node<Integer, Integer>> live = new HashMap<>();
+        List<Node<Integer, Integer>> removed = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(4 * CAPACITY);
+            Node<Integer, Integer> node = live.get(key);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                if (node != null) {
+                    policy.onAccess(node);
+                } else {
+                    node = new Node<>(key, key);
+                    live.put(key, node);
+                    policy.onInsert(node);
+                }
+            } else if (operation < 7 && node != null) {
+                policy.onUpdate(node, 0);
+            } else if (operation < 9 && node != null) {
+                live.remove(key);
+                policy.onRemove(node);
+                removed.add(node);
+            } else if (!removed.isEmpty()) {
+                // A hit replayed from the read buffer after the entry was removed
+                policy.onAccess(removed.get(random.nextInt(removed.size())));
+            }
+            // The cache evicts until the segment fits again
+            while (live.size() > CAPACITY) {
+                Node<Integer, Integer> victim = policy.evict();
+                assertNotNull(victim, "nothing to evict at op " + i);
+                assertTrue(live.remove(victim.key, victim), "evicted a node that is not live: " + victim.key);
+                removed.add(victim);
+            }
+            if (removed.size() > 1_000) removed.subList(0, 500).clear();
+            if (i % 1_000 == 0) assertVisitsExactly(policy, live);
+        }
+        assertVisitsExactly(policy, live);
+
+        while (!live.isEmpty()) {
+            Node<Integer, Integer> victim = policy.evict();
+            assertNotNull(victim);
+            assertTrue(live.remove(victim.key, victim));
+        }
+        assertNull(policy.evict());
+    }
+
+    @Test
+    void lruEvictsAndVisitsInRecencyOrder() {
+        EvictionPolicy<Integer, Integer> policy = EvictionPolicy.lru(CAPACITY);
+        // Access order model: most recently used last
+        LinkedHashMap<Integer, Node<Integer, Integer>> model = new LinkedHashMap<>(16, 0.75f, true);
+        SplittableRandom random = new SplittableRandom(9);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2 * CAPACITY);
+            Node<Integer, Integer> node = model.get(key);
+            if (node != null) {
+                policy.onAccess(node);
+            } else {
+                node = new Node<>(key, key);
+                model.put(key, node);
+                policy.onInsert(node);
+            }
+            if (model.size() > CAPACITY) {
+                Node<Integer, Integer> eldest = model.values().iterator().next();
+                assertEquals(eldest, policy.evict());
+                model.remove(eldest.key);
+            }
+        }
+        List<Node<Integer, Integer>> expected = new ArrayList<>(model.values());
+        Collections.reverse(expected);
+        List<Node<Integer, Integer>> visited = new ArrayList<>();
+        policy.forEachHottest(visited::add);
+        assertEquals(expected, visited);
+    }
+
+    private static void assertVisitsExactly(EvictionPolicy<Integer, Integer> policy,
+                                            Map<Integer, Node<Integer, Integer>> live) {
+        Set<Node<Integer, Integer>> visited = new HashSet<>();
+        policy.forEachHottest(node -> assertTrue(visited.add(node), "visited twice: " + node.key));
+        assertEquals(new HashSet<>(live.values()), visited);
+    }
+
+    static LongFunction<EvictionPolicy<Integer, Integer>> factory(String name) {
+        return switch (name) {
+            case "lru" -> EvictionPolicy::lru;
+            case "slru" -> EvictionPolicy::slru;
+            case "clock" -> EvictionPolicy::clock;
+            case "s3Fifo" -> EvictionPolicy::s3Fifo;
+            case "windowTinyLfu" -> EvictionPolicy::windowTinyLfu;
+            default -> throw new IllegalArgumentException("Unknown policy: " + name);
+        };
+    }
+}
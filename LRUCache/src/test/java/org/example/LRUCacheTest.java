@@ -0,0 +1,334 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LRUCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LRUCache<String, Integer> cache = new LRUCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"lru", "slru", "clock", "s3Fifo", "windowTinyLfu"})
+    void sizeWeightAndPolicyAgreeAfterConcurrentOperations(String policy) throws InterruptedException {
+        long maximumWeight = 2_000;
+        LRUCache<Integer, Integer> cache = LRUCache.<Integer, Integer>builder()
+                .maximumWeight(maximumWeight)
+                .weigher((key, value) -> 1 + value % 4)
+                .concurrencyLevel(16)
+                .bufferedReads(true)
+                .evictionPolicy(EvictionPolicyTest.factory(policy))
+                .build();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 100_000; i++) {
+                    int key = random.nextInt(5_000);
+                    switch (random.nextInt(8)) {
+                        case 0, 1, 2 -> cache.get(key);
+                        case 3, 4 -> cache.put(key, random.nextInt(100));
+                        case 5 -> cache.remove(key);
+                        case 6 -> cache.putAll(Map.of(key, 1, key + 1, 2, key + 2, 3));
+                        default -> cache.invalidateAll(List.of(key, key + 7));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        int policyNodes = 0;
+        long policyWeight = 0;
+        int segmentSizes = 0;
+        long segmentWeights = 0;
+        for (Segment<Integer, Integer> segment : cache.segments) {
+            List<Node<Integer, Integer>> nodes = new ArrayList<>();
+            segment.lock();
+            try {
+                segment.drainReadBuffer();
+                segment.policy.forEachHottest(nodes::add);
+            } finally {
+                segment.unlock();
+            }
+            for (Node<Integer, Integer> node : nodes) {
+                assertEquals(node, cache.cache.get(node.key), "policy holds a node the map does not");
+                assertEquals(1 + node.value % 4, node.weight);
+                policyWeight += node.weight;
+            }
+            policyNodes += nodes.size();
+            segmentSizes += segment.size;
+            segmentWeights += segment.weight;
+        }
+        assertEquals(cache.cache.size(), cache.size());
+        assertEquals(cache.size(), policyNodes);
+        assertEquals(cache.size(), segmentSizes);
+        assertEquals(cache.weight(), policyWeight);
+        assertEquals(cache.weight(), segmentWeights);
+        assertTrue(cache.weight() <= maximumWeight, "weight " + cache.weight());
+    }
+
+    @Test
+    void bufferedHitsStillCountForRecency() {
+        LRUCache<String, Integer> cache = LRUCache.<String, Integer>builder()
+                .capacity(3)
+                .bufferedReads(true)
+                .build();
+        cache.put("x", 1);
+        cache.put("y", 2);
+        cache.put("z", 3);
+        for (int i = 0; i < 10; i++) cache.get("x");
+        cache.put("w", 4);
+
+        assertEquals(1, cache.get("x"));
+        assertNull(cache.get("y"));
+    }
+
+    @Test
+    void tinyLfuAdmissionKeepsTheHotSetThroughAScan() {
+        assertTrue(hotSetHitRatioUnderScan(false) < 0.1);
+        assertTrue(hotSetHitRatioUnderScan(true) > 0.5);
+    }
+
+    // 500 hot keys, each lookup followed by four one-off keys, in a cache of 1000
+    private static double hotSetHitRatioUnderScan(boolean tinyLfu) {
+        LRUCache<Integer, Integer> cache = LRUCache.<Integer, Integer>builder()
+                .capacity(1_000)
+                .tinyLfuAdmission(tinyLfu)
+                .build();
+        int hits = 0;
+        int lookups = 0;
+        int scanKey = 1_000_000;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                lookups++;
+                if (cache.get(i) != null) hits++;
+                else cache.put(i, i);
+                for (int s = 0; s < 4; s++) cache.put(scanKey++, s);
+            }
+        }
+        return (double) hits / lookups;
+    }
+
+    @Test
+    void readsExtendExpireAfterAccessButNotAPerEntryTtl() {
+        AtomicLong now = new AtomicLong();
+        LRUCache<String, String> cache = LRUCache.<String, String>builder()
+                .capacity(100)
+                .expireAfterAccess(Duration.ofSeconds(10))
+                .ticker(now::get)
+                .build();
+        cache.put("session", "s-1");
+        cache.put("token", "t-1", Duration.ofSeconds(5));
+        cache.put("report", "r-1");
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertEquals("s-1", cache.get("session"));
+        assertNull(cache.get("token"));
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertEquals("s-1", cache.get("session"));
+        assertNull(cache.get("report"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void weightBudgetEvictsSeveralSmallEntriesAndRefusesOversizedOnes() {
+        LRUCache<String, String> cache = LRUCache.<String, String>builder()
+                .maximumWeight(1_024)
+                .weigher((key, value) -> value.length())
+                .build();
+        for (int i = 0; i < 8; i++) cache.put("small-" + i, "x".repeat(100));
+        cache.put("large", "y".repeat(600));
+        cache.put("huge", "z".repeat(2_000));
+
+        assertEquals(5, cache.size());
+        assertEquals(1_000, cache.weight());
+        assertNull(cache.get("huge"));
+        assertEquals("y".repeat(600), cache.get("large"));
+    }
+
+    @Test
+    void statsAndRemovalNotifications() {
+        List<String> removals = new ArrayList<>();
+        LRUCache<String, Integer> cache = LRUCache.<String, Integer>builder()
+                .capacity(2)
+                .removalListener((key, value, cause) -> removals.add(key + "=" + value + " " + cause))
+                .listenerExecutor(Runnable::run)
+                .build();
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        cache.put("a", 10);
+        cache.remove("c");
+        cache.get("b");
+        cache.get("missing", key -> null);
+
+        assertEquals(List.of("b=2 SIZE", "a=1 REPLACED", "c=3 EXPLICIT"), removals);
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(0, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+    }
+
+    @Test
+    void bulkOperationsAcrossSegments() {
+        LRUCache<Integer, String> cache = new LRUCache<>(1_000, 16);
+        Map<Integer, String> batch = new HashMap<>();
+        for (int i = 0; i < 200; i++) batch.put(i, "v" + i);
+        cache.putAll(batch);
+        List<Integer> wanted = new ArrayList<>(batch.keySet());
+        wanted.add(999);
+
+        assertEquals(batch, cache.getAll(wanted));
+        cache.invalidateAll(wanted.subList(0, 100));
+        assertEquals(100, cache.size());
+        for (int key : wanted.subList(0, 100)) assertNull(cache.get(key));
+    }
+
+    @Test
+    void snapshotReloadsTheHottestEntries(@TempDir Path directory) throws IOException {
+        LRUCache<String, String> beforeRestart = new LRUCache<>(2_000, 4);
+        for (int i = 0; i < 1_000; i++) beforeRestart.put("page-" + i, "body " + i);
+        for (int i = 0; i < 10; i++) beforeRestart.get("page-" + i);
+        Path snapshot = directory.resolve("cache.snapshot");
+
+        assertEquals(1_000, beforeRestart.snapshotTo(snapshot, Codec.utf8(), Codec.utf8()));
+
+        LRUCache<String, String> afterRestart = new LRUCache<>(1_000, 4);
+        assertEquals(300, afterRestart.loadFrom(snapshot, Codec.utf8(), Codec.utf8(), 300).join());
+        assertEquals(300, afterRestart.size());
+        // Recently read and recently written entries were saved first; the middle of the write order was not
+        assertEquals("body 0", afterRestart.get("page-0"));
+        assertEquals("body 999", afterRestart.get("page-999"));
+        assertNull(afterRestart.get("page-500"));
+        assertFalse(Files.exists(directory.resolve("cache.snapshot.tmp")));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws InterruptedException {
+        LRUCache<String, String> cache = new LRUCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] readers = new Thread[32];
+        String[] results = new String[readers.length];
+        for (int t = 0; t < readers.length; t++) {
+            int reader = t;
+            readers[t] = new Thread(() -> results[reader] = cache.get("config", key -> {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded " + key;
+            }));
+            readers[t].start();
+        }
+        // Long enough for every reader to find the key missing while the first load is still blocked
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread reader : readers) reader.join();
+
+        assertEquals(1, loads.get());
+        for (String result : results) assertEquals("loaded config", result);
+
+        Map<String, String> bulk = cache.getAll(List.of("config", "a", "b"), missing -> {
+            loads.incrementAndGet();
+            Map<String, String> values = new HashMap<>();
+            for (String key : missing) values.put(key, "bulk " + key);
+            return values;
+        });
+        assertEquals(2, loads.get());
+        assertEquals(Map.of("config", "loaded config", "a", "bulk a", "b", "bulk b"), bulk);
+    }
+
+    @Test
+    void refreshKeepsTheEntrysOwnTtl() {
+        AtomicLong now = new AtomicLong();
+        LRUCache<String, String> cache = LRUCache.<String, String>builder()
+                .capacity(100)
+                .expireAfterWrite(Duration.ofHours(1))
+                .refreshAfterWrite(Duration.ofSeconds(1))
+                .refreshExecutor(Runnable::run)
+                .ticker(now::get)
+                .build();
+        cache.put("a", "v1", Duration.ofSeconds(10));
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("v1", cache.get("a", key -> "v2"));
+
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("v2", cache.get("a"));
+        // Ten seconds after the refresh, not the cache-wide hour
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void recursiveLoadOfTheSameKeyFailsInsteadOfDeadlocking() {
+        LRUCache<String, String> cache = LRUCache.<String, String>builder().capacity(100).build();
+
+        assertThrows(IllegalStateException.class,
+                () -> cache.get("a", key -> cache.get(key, inner -> "inner")));
+
+        // The failed load does not leave the key claimed
+        assertEquals("outer", cache.get("a", key -> "outer"));
+    }
+
+    @Test
+    void bulkLoaderCallingBackIntoTheSameKeyFails() {
+        LRUCache<String, String> cache = LRUCache.<String, String>builder().capacity(100).build();
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key ->
+                cache.getAll(List.of("a", "b"), missing -> Map.of("b", "b")).get("b")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {(1 << 30) + 1, Integer.MAX_VALUE})
+    void hugeConcurrencyLevelsAreClamped(int concurrencyLevel) {
+        LRUCache<Integer, Integer> cache = LRUCache.<Integer, Integer>builder()
+                .capacity(1 << 20)
+                .concurrencyLevel(concurrencyLevel)
+                .build();
+        for (int i = 0; i < 1_000; i++) cache.put(i, i);
+
+        assertEquals(1_000, cache.size());
+        assertEquals(500, cache.get(500));
+    }
+}
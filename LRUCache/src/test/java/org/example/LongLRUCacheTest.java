@@ -0,0 +1,51 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongLRUCacheTest {
+
+    @Test
+    void matchesAnAccessOrderedLinkedHashMap() {
+        int capacity = 1_000;
+        LongLRUCache<Long> cache = new LongLRUCache<>(capacity);
+        Map<Long, Long> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 2_000_000; i++) {
+            // Twice the capacity in keys, so evictions and backward-shift deletions are frequent
+            long key = random.nextInt(2 * capacity);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                assertEquals(expected.get(key), cache.get(key), "get " + key + " at op " + i);
+            } else if (operation < 9) {
+                long value = random.nextLong();
+                expected.put(key, value);
+                cache.put(key, value);
+            } else {
+                expected.remove(key);
+                cache.remove(key);
+            }
+            assertEquals(expected.size(), cache.size());
+        }
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), cache.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void maxCapacityTableFitsInAnIntSizedArray() {
+        assertEquals(1 << 30, LongLRUCache.tableSizeFor(LongLRUCache.MAX_CAPACITY));
+        assertThrows(IllegalArgumentException.class, () -> new LongLRUCache<>(LongLRUCache.MAX_CAPACITY + 1));
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapLRUCacheTest {
+    private static final int SLAB_SIZE = 1024;
+
+    @Test
+    void sizeClassWithoutASlabTakesOneOverOnceTheBudgetIsUsedUp() {
+        OffHeapLRUCache<Integer, String> cache =
+                new OffHeapLRUCache<>(4 * SLAB_SIZE, SLAB_SIZE, Codec.utf8(), null);
+        // 64-byte chunks, 16 per slab: all four slabs end up in the smallest class
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "small-" + i);
+        }
+        assertEquals(64, cache.size());
+
+        String large = "x".repeat(500);
+        cache.put(-1, large);
+
+        assertEquals(large, cache.get(-1));
+        // Keys 36 (the coldest) to 47 and 96 to 99, which reused their chunks, shared the slab that was handed over
+        assertEquals(64 - 16 + 1, cache.size());
+        assertNull(cache.get(36));
+        assertNull(cache.get(99));
+        assertEquals("small-48", cache.get(48));
+        assertEquals("small-95", cache.get(95));
+        assertEquals(4L * SLAB_SIZE, cache.offHeapBytes());
+    }
+
+    @Test
+    void failedWriteKeepsTheOldValue() {
+        Codec<String> failing = new Codec<>() {
+            @Override
+            public int sizeOf(String value) {
+                return value.length();
+            }
+
+            @Override
+            public void write(String value, ByteBuffer target) {
+                if (value.equals("boom")) throw new IllegalStateException("boom");
+                Codec.utf8().write(value, target);
+            }
+
+            @Override
+            public String read(ByteBuffer source) {
+                return Codec.utf8().read(source);
+            }
+        };
+        OffHeapLRUCache<String, String> cache = new OffHeapLRUCache<>(4 * SLAB_SIZE, SLAB_SIZE, failing, null);
+        cache.put("key", "old");
+
+        assertThrows(IllegalStateException.class, () -> cache.put("key", "boom"));
+
+        assertEquals("old", cache.get("key"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void valueTooLargeForASlabReplacesNothing() {
+        OffHeapLRUCache<String, String> cache =
+                new OffHeapLRUCache<>(4 * SLAB_SIZE, SLAB_SIZE, Codec.utf8(), null);
+        cache.put("key", "old");
+
+        cache.put("key", "x".repeat(SLAB_SIZE));
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectsCapacityBelowTheMinimumSlabCount() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new OffHeapLRUCache<>((OffHeapLRUCache.MIN_SLABS - 1L) * SLAB_SIZE, SLAB_SIZE, Codec.utf8(), null));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadBufferTest {
+
+    @Test
+    void drainsInArrivalOrderAndDropsHitsOnceAStripeIsFull() {
+        ReadBuffer<Integer, Integer> buffer = new ReadBuffer<>(1);
+        List<Node<Integer, Integer>> offered = new ArrayList<>();
+        for (int i = 0; i < ReadBuffer.STRIPE_SIZE + 5; i++) {
+            Node<Integer, Integer> node = new Node<>(i, i);
+            boolean shouldDrain = buffer.offer(node);
+            assertEquals(i + 1 >= ReadBuffer.DRAIN_THRESHOLD, shouldDrain, "offer " + i);
+            offered.add(node);
+        }
+
+        List<Node<Integer, Integer>> drained = new ArrayList<>();
+        buffer.drainTo(drained::add);
+        assertEquals(offered.subList(0, ReadBuffer.STRIPE_SIZE), drained);
+
+        // Slots are reused after a drain, and an empty buffer drains nothing
+        drained.clear();
+        assertFalse(buffer.offer(offered.get(0)));
+        buffer.drainTo(drained::add);
+        buffer.drainTo(drained::add);
+        assertEquals(List.of(offered.get(0)), drained);
+    }
+
+    @Test
+    void concurrentReadersNeverDuplicateOrReorderTheirHits() throws InterruptedException {
+        ReadBuffer<Integer, Integer> buffer = new ReadBuffer<>(4);
+        int readers = 8;
+        int hitsPerReader = 200_000;
+        List<Integer> drained = new ArrayList<>();
+        Object lock = new Object();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] threads = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            int reader = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < hitsPerReader; i++) {
+                    // Key encodes reader and sequence number
+                    if (buffer.offer(new Node<>(reader * hitsPerReader + i, 0))) {
+                        synchronized (lock) {
+                            buffer.drainTo(node -> drained.add(node.key));
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        Thread drainer = new Thread(() -> {
+            while (running.get()) {
+                synchronized (lock) {
+                    buffer.drainTo(node -> drained.add(node.key));
+                }
+            }
+        });
+        drainer.start();
+        for (Thread thread : threads) thread.join();
+        running.set(false);
+        drainer.join();
+        buffer.drainTo(node -> drained.add(node.key));
+
+        Set<Integer> seen = new HashSet<>();
+        int[] lastSequence = new int[readers];
+        Arrays.fill(lastSequence, -1);
+        for (int key : drained) {
+            assertTrue(seen.add(key), "drained twice: " + key);
+            int reader = key / hitsPerReader;
+            int sequence = key % hitsPerReader;
+            assertTrue(sequence > lastSequence[reader], "out of order for reader " + reader);
+            lastSequence[reader] = sequence;
+        }
+        assertTrue(drained.size() > 0);
+
+        List<Integer> leftOver = new ArrayList<>();
+        buffer.drainTo(node -> leftOver.add(node.key));
+        assertEquals(List.of(), leftOver);
+    }
+}
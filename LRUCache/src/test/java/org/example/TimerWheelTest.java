@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+    // Expiry is only checked when the finest level ticks, so an entry may fire up to one such tick late
+    private static final int FINEST_SHIFT = 30;
+
+    @Test
+    void entriesCascadeDownAndFireOnTheFirstTickPastTheirDeadline() {
+        long start = 123_456_789L;
+        TimerWheel<Integer, Integer> wheel = new TimerWheel<>(start);
+        SplittableRandom random = new SplittableRandom(5);
+        List<Node<Integer, Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Node<Integer, Integer> node = new Node<>(i, i);
+            // Spread over every level, the overflow bucket included: up to ten days out
+            node.expiresAt = start + (long) Math.pow(10, random.nextDouble(8, 15.0));
+            wheel.schedule(node);
+            nodes.add(node);
+        }
+
+        HashSet<Node<Integer, Integer>> expired = new HashSet<>();
+        long now = start;
+        while (expired.size() < nodes.size()) {
+            // Mostly small steps, with jumps that skip whole rotations of the finer levels
+            now += random.nextInt(10) == 0
+                    ? random.nextLong(TimeUnit.HOURS.toNanos(30))
+                    : random.nextLong(TimeUnit.MINUTES.toNanos(2));
+            long current = now;
+            wheel.advance(now, node -> {
+                assertTrue(node.expiresAt <= current, "fired early: " + node.key);
+                assertTrue(expired.add(node), "fired twice: " + node.key);
+            });
+            for (Node<Integer, Integer> node : nodes) {
+                if (node.expiresAt >>> FINEST_SHIFT < now >>> FINEST_SHIFT) {
+                    assertTrue(expired.contains(node), "missed: " + node.key);
+                }
+            }
+        }
+    }
+
+    @Test
+    void oneSecondStepsCarryAnEntryDownFromTheHourLevel() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        Node<String, String> node = new Node<>("k", "v");
+        node.expiresAt = TimeUnit.MINUTES.toNanos(135);
+        wheel.schedule(node);
+
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = 0; now <= TimeUnit.MINUTES.toNanos(136); now += TimeUnit.SECONDS.toNanos(1)) {
+            long current = now;
+            wheel.advance(now, expired -> firedAt.add(current));
+        }
+
+        assertEquals(1, firedAt.size());
+        assertTrue(firedAt.get(0) >= node.expiresAt);
+        long lateness = firedAt.get(0) - node.expiresAt;
+        assertTrue(lateness < 2L << FINEST_SHIFT, "late by " + lateness);
+    }
+
+    @Test
+    void deadlinesMovedLaterAreRescheduledAndDescheduledEntriesNeverFire() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        Node<String, String> extended = new Node<>("extended", "v");
+        extended.expiresAt = TimeUnit.SECONDS.toNanos(10);
+        wheel.schedule(extended);
+        Node<String, String> removed = new Node<>("removed", "v");
+        removed.expiresAt = TimeUnit.SECONDS.toNanos(10);
+        wheel.schedule(removed);
+        wheel.deschedule(removed);
+        // An access under buffered reads pushes the deadline out without telling the wheel
+        extended.expiresAt = TimeUnit.MINUTES.toNanos(5);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(TimeUnit.MINUTES.toNanos(1), node -> fired.add(node.key));
+        assertEquals(List.of(), fired);
+
+        wheel.advance(TimeUnit.MINUTES.toNanos(6), node -> fired.add(node.key));
+        assertEquals(List.of("extended"), fired);
+    }
+}
@@ -1,5 +1,6 @@
 package org.learning;
 
+import java.nio.charset.StandardCharsets;
 import java.util.BitSet;
 
 public class BloomFilter {
@@ -8,35 +9,67 @@ public class BloomFilter {
     private final int numHashFunctions;
 
     public BloomFilter(int bitsetSize, int numHashFunctions) {
+        if (bitsetSize <= 0 || numHashFunctions <= 0) {
+            throw new IllegalArgumentException("Bitset size and number of hash functions must be positive");
+        }
         this.bitsetSize = bitsetSize;
         this.numHashFunctions = numHashFunctions;
         this.bitset = new BitSet(bitsetSize);
     }
 
+    /**
+     * Sizes the filter for {@code expectedInsertions} keys at a false-positive probability of {@code fpp}:
+     * m = -n ln(p) / (ln 2)^2 bits and k = (m / n) ln 2 hash functions, the optimum for that many bits.
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || !(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("Expected insertions must be positive and fpp strictly between 0 and 1");
+        }
+        double bits = Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        if (bits > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter would need " + (long) bits + " bits, more than a BitSet can hold");
+        }
+        int numHashFunctions = (int) Math.max(1, Math.round(bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter((int) bits, numHashFunctions);
+    }
+
     // Add an element to the Bloom filter
     public void add(String key) {
+        long[] hash = Murmur3.hash128(key.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        // Kirsch-Mitzenmacher: probe i is h1 + i * h2 over one 128-bit Murmur3 of the key, which behaves like k
+        // independent hash functions for the false-positive rate while hashing the key only once.
         for (int i = 0; i < numHashFunctions; i++) {
-            int hash = hash(key, i);
-            bitset.set(Math.abs(hash % bitsetSize));
+            bitset.set(index(combined));
+            combined += hash[1];
         }
     }
 
     // Check if element might be present
     public boolean mightContain(String key) {
+        long[] hash = Murmur3.hash128(key.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        // The same h1 + i * h2 probes as add
         for (int i = 0; i < numHashFunctions; i++) {
-            int hash = hash(key, i);
-            if (!bitset.get(Math.abs(hash % bitsetSize))) {
+            if (!bitset.get(index(combined))) {
                 return false; // Definitely not present
             }
+            combined += hash[1];
         }
         return true; // Might be present
     }
 
-    // Basic hash mixing using key + i, as part hashing we need to have k independent i.e different hash functions,
-    // This basic hash function is multiplied with constant 0x5bd1e995 so that the resulting hash functions are different
-    // 0x5bd1e995 this is number is particualr choosen from MurmurHash2 because of its high bit mixing, and avalanche effect
-    private int hash(String key, int i) {
-        return key.hashCode() ^ (i * 0x5bd1e995);
+    public int bitsetSize() {
+        return bitsetSize;
+    }
+
+    public int numHashFunctions() {
+        return numHashFunctions;
+    }
+
+    // Clears the sign bit so the remainder is a valid bit index
+    private int index(long combined) {
+        return (int) ((combined & Long.MAX_VALUE) % bitsetSize);
     }
 
     public static void main(String[] args) {
@@ -55,5 +88,17 @@ public class BloomFilter {
         // Key not added
         System.out.println("durian?  " + bloom.mightContain("durian"));  // false (or maybe true if false positive)
         System.out.println("eggplant?" + bloom.mightContain("eggplant")); // false
+
+        // Sized from the workload instead of by hand: 1M keys at 1% gives ~9.6M bits and 7 hash functions
+        BloomFilter sized = BloomFilter.create(1_000_000, 0.01);
+        for (int i = 0; i < 1_000_000; i++) {
+            sized.add("user-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            if (sized.mightContain("visitor-" + i)) falsePositives++;
+        }
+        System.out.printf("m=%d, k=%d, measured fpp=%.4f (target 0.0100)%n",
+                sized.bitsetSize(), sized.numHashFunctions(), falsePositives / 1_000_000.0);
     }
 }
\ No newline at end of file
@@ -5,7 +5,15 @@ import java.util.concurrent.*;
 
 public class GossipFailureDetector {
 
-    enum Status { ALIVE, SUSPECT, DEAD }
+    public enum Status { ALIVE, SUSPECT, DEAD }
+
+    /**
+     * Receives the status changes one node observed during a gossip round, coalesced into a single call per round
+     * so subscribers such as a hash ring can apply them as one batch.
+     */
+    public interface MembershipListener {
+        void onMembershipChange(String observerId, Map<String, Status> changes);
+    }
 
     static class NodeState {
         int heartbeat;
@@ -25,6 +33,8 @@ public class GossipFailureDetector {
         List<Node> cluster;
         int heartbeat = 0;
         Random random = new Random();
+        List<MembershipListener> listeners = new CopyOnWriteArrayList<>();
+        Map<String, Status> published = new HashMap<>(); // statuses as last reported to the listeners
 
         static final int SUSPECT_TIMEOUT = 3000;
         static final int DEAD_TIMEOUT = 6000;
@@ -64,6 +74,26 @@ public class GossipFailureDetector {
             }
         }
 
+        void addListener(MembershipListener listener) {
+            listeners.add(listener);
+        }
+
+        // Diff against what listeners last saw, so several transitions in one round reach them as one event
+        void publishChanges() {
+            if (listeners.isEmpty()) return;
+            Map<String, Status> changes = new HashMap<>();
+            peerStates.forEach((nodeId, state) -> {
+                Status status = state.status;
+                if (published.put(nodeId, status) != status) {
+                    changes.put(nodeId, status);
+                }
+            });
+            if (changes.isEmpty()) return;
+            for (MembershipListener listener : listeners) {
+                listener.onMembershipChange(id, changes);
+            }
+        }
+
         void heartbeatTick() {
             heartbeat++;
             peerStates.put(id, new NodeState(heartbeat, Status.ALIVE));
@@ -80,6 +110,7 @@ public class GossipFailureDetector {
                 heartbeatTick();
                 gossip();
                 detectFailures();
+                publishChanges();
                 try {
                     Thread.sleep(1000); // simulate 1-second gossip interval
                 } catch (InterruptedException e) {
@@ -99,6 +130,10 @@ public class GossipFailureDetector {
             node.cluster = cluster;
         }
 
+        // Node-0 stands in for the local process: its view drives whoever routes by cluster membership
+        cluster.get(0).addListener((observerId, changes) ->
+                System.out.println("[" + observerId + "] membership changed: " + changes));
+
         List<Thread> threads = new ArrayList<>();
         for (Node node : cluster) {
             Thread t = new Thread(node);
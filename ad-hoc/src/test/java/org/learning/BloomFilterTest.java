@@ -0,0 +1,59 @@
+package org.learning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void createSizesTheFilterWithTheStandardFormulas() {
+        assertSized(1_000_000, 0.01, 9_585_059, 7);
+        assertSized(1_000, 0.001, 14_378, 10);
+        assertSized(1, 0.5, 2, 1);
+        for (long n : new long[] {10, 12_345, 3_000_000}) {
+            for (double p : new double[] {0.1, 0.03, 0.0001}) {
+                long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+                assertSized(n, p, bits, (int) Math.max(1, Math.round((double) bits / n * Math.log(2))));
+            }
+        }
+    }
+
+    @Test
+    void createRejectsImpossibleSizes() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(Long.MAX_VALUE / 2, 0.01));
+    }
+
+    @Test
+    void addedKeysAreAlwaysFoundAndFalsePositivesStayNearTheTarget() {
+        int insertions = 200_000;
+        int probes = 400_000;
+        for (double fpp : new double[] {0.05, 0.01, 0.001}) {
+            BloomFilter filter = BloomFilter.create(insertions, fpp);
+            for (int i = 0; i < insertions; i++) filter.add("user-" + i);
+            for (int i = 0; i < insertions; i++) {
+                assertTrue(filter.mightContain("user-" + i), "user-" + i);
+            }
+
+            int falsePositives = 0;
+            for (int i = 0; i < probes; i++) {
+                if (filter.mightContain("visitor-" + i)) falsePositives++;
+            }
+            // At 0.1% that is about 400 hits, so sampling noise is a few percent of the 1.5x allowance
+            double measured = (double) falsePositives / probes;
+            assertTrue(measured < 1.5 * fpp, "fpp " + fpp + " measured " + measured);
+        }
+    }
+
+    private static void assertSized(long expectedInsertions, double fpp, long bits, int numHashFunctions) {
+        BloomFilter filter = BloomFilter.create(expectedInsertions, fpp);
+        String label = "n=" + expectedInsertions + " p=" + fpp;
+        assertEquals(bits, filter.bitsetSize(), label);
+        assertEquals(numHashFunctions, filter.numHashFunctions(), label);
+    }
+}